@@ -0,0 +1,24 @@
+package benchmarks;
+
+import models.GameState;
+import utils.BoardLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+final class Boards {
+
+    private Boards() {
+    }
+
+    static GameState load(String name) throws IOException {
+        String directory = System.getProperty("freecell.boards");
+        Path file = directory != null ? Paths.get(directory, name) : Paths.get("boards", name);
+        if (directory == null && !Files.exists(file)) {
+            file = Paths.get("..", "boards", name);
+        }
+        return BoardLoader.loadFromFile(file.toString());
+    }
+}
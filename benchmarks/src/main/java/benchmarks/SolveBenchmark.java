@@ -0,0 +1,50 @@
+package benchmarks;
+
+import models.CompactState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import search.SearchResult;
+import search.SolverConfig;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"easy.txt", "medium.txt", "hard.txt", "impossible.txt", "nearimpossible.txt"})
+    public String board;
+
+    @Param({"BUCKET", "BINARY_HEAP"})
+    public String openList;
+
+    private SolverConfig config;
+    private CompactState initialState;
+
+    @Setup
+    public void setup() throws IOException {
+        initialState = CompactState.fromGameState(Boards.load(board));
+        config = new SolverConfig();
+        config.setOpenListType(SolverConfig.OpenListType.valueOf(openList));
+        config.setVerbose(false);
+    }
+
+    @Benchmark
+    public SearchResult solve() {
+        return config.createSolver().search(initialState.copy());
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import models.CompactState;
+import models.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rules.Rules;
+import search.Heuristic;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+    @Param({"easy.txt", "hard.txt", "nearimpossible.txt"})
+    public String board;
+
+    private final Heuristic heuristic = new Heuristic();
+
+    private GameState gameState;
+    private GameState gameStateCopy;
+    private CompactState compactState;
+    private CompactState compactStateCopy;
+
+    @Setup
+    public void setup() throws IOException {
+        gameState = Boards.load(board);
+        gameStateCopy = gameState.deepCopy();
+        compactState = CompactState.fromGameState(gameState);
+        compactStateCopy = compactState.copy();
+    }
+
+    @Benchmark
+    public GameState gameStateDeepCopy() {
+        return gameState.deepCopy();
+    }
+
+    @Benchmark
+    public CompactState compactStateCopy() {
+        return compactState.copy();
+    }
+
+    @Benchmark
+    public int gameStateHashCode() {
+        return gameState.hashCode();
+    }
+
+    @Benchmark
+    public boolean gameStateEquals() {
+        return gameState.equals(gameStateCopy);
+    }
+
+    @Benchmark
+    public long compactStateZobristKey() {
+        return compactState.computeZobristKey();
+    }
+
+    @Benchmark
+    public boolean compactStateEquals() {
+        return compactState.equals(compactStateCopy);
+    }
+
+    @Benchmark
+    public int gameStateHeuristic() {
+        return heuristic.calculate(gameState);
+    }
+
+    @Benchmark
+    public int compactStateHeuristic() {
+        return heuristic.calculate(compactState);
+    }
+
+    @Benchmark
+    public void gameStateMultipleCardMoves(Blackhole blackhole) {
+        int maxMovable = Rules.getMaxMovableCards(gameState);
+        for (int from = 0; from < CompactState.TABLEAU_PILES; from++) {
+            for (int to = 0; to < CompactState.TABLEAU_PILES; to++) {
+                for (int count = 2; count <= maxMovable; count++) {
+                    blackhole.consume(Rules.canMoveMultipleTableauCards(gameState, from, to, count));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void compactStateMultipleCardMoves(Blackhole blackhole) {
+        int maxMovable = Rules.getMaxMovableCards(compactState);
+        for (int from = 0; from < CompactState.TABLEAU_PILES; from++) {
+            for (int to = 0; to < CompactState.TABLEAU_PILES; to++) {
+                for (int count = 2; count <= maxMovable; count++) {
+                    blackhole.consume(Rules.canMoveMultipleTableauCards(compactState, from, to, count));
+                }
+            }
+        }
+    }
+}
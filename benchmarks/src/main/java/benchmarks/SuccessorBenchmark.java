@@ -0,0 +1,65 @@
+package benchmarks;
+
+import models.CompactState;
+import models.Move;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import search.Heuristic;
+import search.MoveGenerator;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuccessorBenchmark {
+
+    @Param({"easy.txt", "hard.txt", "nearimpossible.txt"})
+    public String board;
+
+    private final Heuristic heuristic = new Heuristic();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+    private final int[] autoMoves = new int[CompactState.DECK_SIZE];
+
+    private CompactState state;
+
+    @Setup
+    public void setup() throws IOException {
+        state = CompactState.fromGameState(Boards.load(board));
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return MoveGenerator.generateMoves(state, moves);
+    }
+
+    @Benchmark
+    public void expandNode(Blackhole blackhole) {
+        int moveCount = MoveGenerator.generateMoves(state, moves);
+        CompactState working = state.copy();
+        for (int i = 0; i < moveCount; i++) {
+            Move.apply(working, moves[i]);
+            int autoMoveCount = MoveGenerator.performAutocompleteMoves(working, autoMoves);
+            blackhole.consume(working.getZobristKey());
+            blackhole.consume(heuristic.calculate(working));
+            while (autoMoveCount > 0) {
+                Move.undo(working, autoMoves[--autoMoveCount]);
+            }
+            Move.undo(working, moves[i]);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+import search.MoveGenerator;
+import utils.MicrosoftDeals;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CompactStateTest {
+
+    private static final int DEALS = 40;
+    private static final int STEPS = 300;
+
+    @Test
+    void incrementalKeyMatchesRecomputeOnRandomWalks() {
+        Random random = new Random(3);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            Deque<int[]> applied = new ArrayDeque<>();
+            Deque<CompactState> before = new ArrayDeque<>();
+            for (int step = 0; step < STEPS; step++) {
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0 || (!applied.isEmpty() && random.nextInt(4) == 0)) {
+                    if (applied.isEmpty()) {
+                        break;
+                    }
+                    undo(state, applied.pop());
+                    CompactState expected = before.pop();
+                    assertEquals(expected.getZobristKey(), state.getZobristKey(), "deal " + deal + " step " + step);
+                    assertEquals(expected, state);
+                } else {
+                    before.push(state.copy());
+                    int move = moves[random.nextInt(moveCount)];
+                    Move.apply(state, move);
+                    int[] autoMoves = new int[CompactState.DECK_SIZE + 1];
+                    int autoCount = MoveGenerator.performAutocompleteMoves(state, autoMoves);
+                    int[] record = new int[autoCount + 1];
+                    record[0] = move;
+                    System.arraycopy(autoMoves, 0, record, 1, autoCount);
+                    applied.push(record);
+                }
+                assertEquals(state.computeZobristKey(), state.getZobristKey(), "deal " + deal + " step " + step);
+            }
+        }
+    }
+
+    @Test
+    void symmetricPermutationsAreEqual() {
+        Random random = new Random(5);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            for (int step = 0; step < STEPS; step++) {
+                CompactState permuted = permute(state, random);
+                assertEquals(state, permuted, "deal " + deal + " step " + step);
+                assertEquals(permuted, state);
+                assertEquals(state.hashCode(), permuted.hashCode());
+                assertEquals(state.getZobristKey(), permuted.getZobristKey());
+                assertArrayEquals(canonicalEncoding(state), canonicalEncoding(permuted));
+
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                Move.apply(state, moves[random.nextInt(moveCount)]);
+                MoveGenerator.performAutocompleteMoves(state, null);
+            }
+        }
+    }
+
+    @Test
+    void gameStateConversionRoundTrips() {
+        Random random = new Random(1);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            for (int step = 0; step < STEPS; step++) {
+                CompactState converted = CompactState.fromGameState(state.toGameState());
+                assertEquals(state, converted, "deal " + deal + " step " + step);
+                assertArrayEquals(canonicalEncoding(state), canonicalEncoding(converted));
+                for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+                    assertEquals(state.pileSize(pile), converted.pileSize(pile));
+                    assertEquals(state.topCard(pile), converted.topCard(pile));
+                    assertEquals(state.orderedRunLength(pile), converted.orderedRunLength(pile));
+                }
+
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                Move.apply(state, moves[random.nextInt(moveCount)]);
+                MoveGenerator.performAutocompleteMoves(state, null);
+            }
+        }
+    }
+
+    @Test
+    void differentStatesAreNotEqual() {
+        CompactState state = MicrosoftDeals.deal(1);
+        CompactState moved = state.copy();
+        moved.setFreeCell(0, moved.popTableau(0));
+        assertNotEquals(state, moved);
+        assertNotEquals(state.getZobristKey(), moved.getZobristKey());
+    }
+
+    private static CompactState permute(CompactState state, Random random) {
+        int[] piles = shuffledIndices(CompactState.TABLEAU_PILES, random);
+        int[] cells = shuffledIndices(CompactState.FREE_CELLS, random);
+        CompactState permuted = new CompactState();
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            for (int position = 0; position < state.pileSize(piles[pile]); position++) {
+                permuted.pushTableau(pile, state.cardAt(piles[pile], position));
+            }
+        }
+        for (int cell = 0; cell < CompactState.FREE_CELLS; cell++) {
+            permuted.setFreeCell(cell, state.getFreeCell(cells[cell]));
+        }
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            for (int rank = 1; rank <= state.homeRank(suit); rank++) {
+                permuted.addToHome(CompactState.cardIndex(suit, rank));
+            }
+        }
+        return permuted;
+    }
+
+    private static int[] shuffledIndices(int count, Random random) {
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+        return indices;
+    }
+
+    private static byte[] canonicalEncoding(CompactState state) {
+        byte[] buffer = new byte[CompactState.CANONICAL_ENCODING_BYTES];
+        int length = state.writeCanonicalEncoding(buffer);
+        byte[] encoding = new byte[length];
+        System.arraycopy(buffer, 0, encoding, 0, length);
+        return encoding;
+    }
+
+    private static void undo(CompactState state, int[] record) {
+        for (int i = record.length - 1; i >= 0; i--) {
+            Move.undo(state, record[i]);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package rules;
+
+import models.CompactState;
+import models.GameState;
+import models.Move;
+import org.junit.jupiter.api.Test;
+import search.MoveGenerator;
+import utils.MicrosoftDeals;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RulesTest {
+
+    private static final int DEALS = 60;
+    private static final int STEPS = 150;
+
+    @Test
+    void gameStateAndCompactStateOverloadsAgree() {
+        Random random = new Random(17);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            for (int step = 0; step < STEPS; step++) {
+                assertOverloadsAgree(state, state.toGameState(), "deal " + deal + " step " + step);
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                Move.apply(state, moves[random.nextInt(moveCount)]);
+                MoveGenerator.performAutocompleteMoves(state, null);
+            }
+        }
+    }
+
+    @Test
+    void supermoveLengthMatchesDescendingSearch() {
+        Random random = new Random(18);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        int supermoves = 0;
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            for (int step = 0; step < STEPS; step++) {
+                GameState game = state.toGameState();
+                for (int fromPile = 0; fromPile < CompactState.TABLEAU_PILES; fromPile++) {
+                    if (state.isPileEmpty(fromPile)) {
+                        continue;
+                    }
+                    for (int toPile = 0; toPile < CompactState.TABLEAU_PILES; toPile++) {
+                        if (fromPile == toPile) {
+                            continue;
+                        }
+                        int expected = descendingSupermoveLength(game, fromPile, toPile);
+                        int actual = Rules.getSupermoveLength(state, fromPile, toPile);
+                        assertEquals(expected, actual >= 2 ? actual : 0, "deal " + deal + " step " + step + " " + fromPile + " to " + toPile);
+                        if (expected > 0) {
+                            supermoves++;
+                        }
+                    }
+                }
+
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                Move.apply(state, moves[random.nextInt(moveCount)]);
+                MoveGenerator.performAutocompleteMoves(state, null);
+            }
+        }
+        assertTrue(supermoves > 0, "walk never reached a supermove");
+    }
+
+    private static int descendingSupermoveLength(GameState game, int fromPile, int toPile) {
+        int sourceSize = game.getTableauPiles().get(fromPile).size();
+        for (int numCards = Math.min(Rules.getMaxMovableCards(game), sourceSize); numCards >= 2; numCards--) {
+            if (Rules.canMoveMultipleTableauCards(game, fromPile, toPile, numCards)) {
+                return numCards;
+            }
+        }
+        return 0;
+    }
+
+    private static void assertOverloadsAgree(CompactState state, GameState game, String where) {
+        assertEquals(Rules.getMaxMovableCards(game), Rules.getMaxMovableCards(state), where);
+        for (int pile = -1; pile <= CompactState.TABLEAU_PILES; pile++) {
+            assertEquals(Rules.canMoveTableauToHomeCell(game, pile), Rules.canMoveTableauToHomeCell(state, pile), where + " home from " + pile);
+            for (int cell = -1; cell <= CompactState.FREE_CELLS; cell++) {
+                assertEquals(Rules.canMoveTableauToFreeCell(game, pile, cell), Rules.canMoveTableauToFreeCell(state, pile, cell), where + " " + pile + " to cell " + cell);
+                assertEquals(Rules.canMoveFreeCellToTableau(game, cell, pile), Rules.canMoveFreeCellToTableau(state, cell, pile), where + " cell " + cell + " to " + pile);
+            }
+            for (int toPile = -1; toPile <= CompactState.TABLEAU_PILES; toPile++) {
+                assertEquals(Rules.canMoveTableauToTableau(game, pile, toPile), Rules.canMoveTableauToTableau(state, pile, toPile), where + " " + pile + " to " + toPile);
+                for (int count = 0; count <= CompactState.RANKS + 1; count++) {
+                    assertEquals(Rules.canMoveMultipleTableauCards(game, pile, toPile, count), Rules.canMoveMultipleTableauCards(state, pile, toPile, count),
+                        where + " " + count + " from " + pile + " to " + toPile);
+                }
+            }
+        }
+        for (int cell = -1; cell <= CompactState.FREE_CELLS; cell++) {
+            assertEquals(Rules.canMoveFreeCellToHomeCell(game, cell), Rules.canMoveFreeCellToHomeCell(state, cell), where + " home from cell " + cell);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package search;
+
+import models.CompactState;
+import models.Move;
+import org.junit.jupiter.api.Test;
+import utils.MicrosoftDeals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnytimeAStarTest {
+
+    private static final int REMAINING_MOVES = 4;
+
+    @Test
+    void provesIncumbentOptimalAtWeightOne() {
+        for (long deal = 1; deal <= 10; deal++) {
+            CompactState state = nearlySolved(deal);
+            SolverConfig config = new SolverConfig();
+            config.setVerbose(false);
+            config.setAlgorithm(SolverConfig.Algorithm.ARA_STAR);
+            config.setHeuristic(new AdmissibleHeuristic());
+            SearchResult result = config.createSolver().search(state);
+
+            assertEquals(SearchResult.StopReason.SOLVED, result.getStopReason(), "deal " + deal);
+            assertNull(result.getLimitReason(), "deal " + deal);
+            assertTrue(result.getSolution().size() <= REMAINING_MOVES, "deal " + deal);
+            assertTrue(result.getNodesVisited() < config.getBudget().getMaxNodes(), "deal " + deal);
+        }
+    }
+
+    @Test
+    void budgetStopWithIncumbentReportsSolved() {
+        SolverConfig config = new SolverConfig();
+        config.setVerbose(false);
+        config.setAlgorithm(SolverConfig.Algorithm.ARA_STAR);
+        SearchBudget budget = new SearchBudget();
+        budget.setMaxNodes(2000);
+        config.setBudget(budget);
+        SearchResult result = config.createSolver().search(MicrosoftDeals.deal(3));
+
+        assertNotNull(result.getSolution());
+        assertEquals(SearchResult.StopReason.SOLVED, result.getStopReason());
+        assertEquals(SearchResult.StopReason.NODE_LIMIT, result.getLimitReason());
+    }
+
+    private static CompactState nearlySolved(long deal) {
+        CompactState state = MicrosoftDeals.deal(deal);
+        SolverConfig config = new SolverConfig();
+        config.setVerbose(false);
+        int[] moves = MoveGenerator.findMoves(state, config.createSolver().search(state).getSolution());
+        assertNotNull(moves);
+        for (int i = 0; i < moves.length - REMAINING_MOVES; i++) {
+            Move.apply(state, moves[i]);
+            MoveGenerator.performAutocompleteMoves(state, null);
+        }
+        return state;
+    }
+}
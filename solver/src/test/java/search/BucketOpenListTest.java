@@ -0,0 +1,43 @@
+package search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BucketOpenListTest {
+
+    @Test
+    void pollOrderMatchesBinaryHeap() {
+        Random random = new Random(6);
+        OpenList buckets = new BucketOpenList();
+        OpenList heap = new BinaryHeapOpenList();
+        long sequence = 0;
+        for (int round = 0; round < 20000; round++) {
+            if (heap.isEmpty() || random.nextInt(3) != 0) {
+                int h = random.nextInt(40) - 20;
+                int f = h + random.nextInt(30) + (round % 500 == 0 ? -600 : 0);
+                Node node = new Node(null, 0, 0L, 0, f - h, h, f, sequence++);
+                buckets.add(node);
+                heap.add(node);
+            } else {
+                assertSame(heap.poll(), buckets.poll(), "round " + round);
+            }
+        }
+        while (!heap.isEmpty()) {
+            assertSame(heap.poll(), buckets.poll());
+        }
+        assertTrue(buckets.isEmpty());
+    }
+
+    @Test
+    void rejectsScoresOutsideTheBucketRange() {
+        OpenList buckets = new BucketOpenList();
+        buckets.add(new Node(null, 0, 0L, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> buckets.add(new Node(null, 0, 0L, 0, 0, 0, Integer.MAX_VALUE, 1)));
+        assertThrows(IllegalArgumentException.class, () -> buckets.add(new Node(null, 0, 0L, 0, 0, 0, Integer.MIN_VALUE, 2)));
+    }
+}
@@ -0,0 +1,96 @@
+package search;
+
+import models.CompactState;
+import models.Move;
+import org.junit.jupiter.api.Test;
+import utils.MicrosoftDeals;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeuristicTest {
+
+    private static final int DEALS = 40;
+    private static final int STEPS = 400;
+
+    private final Heuristic heuristic = new Heuristic();
+
+    @Test
+    void stalePileCacheMatchesFullRecomputeAfterEveryMove() {
+        Random random = new Random(19);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        int homeMoves = 0;
+        int homeUndos = 0;
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            Deque<Integer> applied = new ArrayDeque<>();
+            assertMatches(state, deal, -1);
+            for (int step = 0; step < STEPS; step++) {
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0 || (!applied.isEmpty() && random.nextInt(5) == 0)) {
+                    if (applied.isEmpty()) {
+                        break;
+                    }
+                    int move = applied.pop();
+                    Move.undo(state, move);
+                    if (isHomeMove(move)) {
+                        homeUndos++;
+                    }
+                } else {
+                    int move = pickMove(moves, moveCount, random);
+                    Move.apply(state, move);
+                    applied.push(move);
+                    if (isHomeMove(move)) {
+                        homeMoves++;
+                    }
+                }
+                assertMatches(state, deal, step);
+            }
+        }
+        assertTrue(homeMoves > 0 && homeUndos > 0, "walk never moved a card home and back");
+    }
+
+    @Test
+    void autoplayKeepsCacheConsistent() {
+        Random random = new Random(23);
+        int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        for (long deal = 1; deal <= DEALS; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            for (int step = 0; step < STEPS; step++) {
+                int moveCount = MoveGenerator.generateMoves(state, moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                Move.apply(state, moves[random.nextInt(moveCount)]);
+                assertMatches(state, deal, step);
+                MoveGenerator.performAutocompleteMoves(state, null);
+                assertMatches(state, deal, step);
+            }
+        }
+    }
+
+    private void assertMatches(CompactState state, long deal, int step) {
+        int expected = heuristic.calculateFromScratch(state);
+        assertEquals(expected, heuristic.calculate(state), "deal " + deal + " step " + step);
+        assertEquals(expected, heuristic.calculate(state.toGameState()), "deal " + deal + " step " + step);
+    }
+
+    private static int pickMove(int[] moves, int moveCount, Random random) {
+        if (random.nextBoolean()) {
+            for (int i = 0; i < moveCount; i++) {
+                if (isHomeMove(moves[i])) {
+                    return moves[i];
+                }
+            }
+        }
+        return moves[random.nextInt(moveCount)];
+    }
+
+    private static boolean isHomeMove(int move) {
+        return Move.kind(move) == Move.TABLEAU_TO_HOME || Move.kind(move) == Move.FREECELL_TO_HOME;
+    }
+}
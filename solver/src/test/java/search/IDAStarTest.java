@@ -0,0 +1,37 @@
+package search;
+
+import models.CompactState;
+import org.junit.jupiter.api.Test;
+import utils.MicrosoftDeals;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IDAStarTest {
+
+    @Test
+    void growsSearchFramesUpToTheDepthLimit() {
+        SolverConfig config = new SolverConfig();
+        config.setVerbose(false);
+        config.setAlgorithm(SolverConfig.Algorithm.IDA_STAR);
+        config.getBudget().setMaxDepth(SearchBudget.MAX_DEPTH);
+        Solver solver = config.createSolver();
+        int longest = 0;
+        for (long deal = 1; deal <= 10; deal++) {
+            CompactState initialState = MicrosoftDeals.deal(deal);
+            SearchResult result = solver.search(initialState);
+            assertTrue(result.isSolved(), "deal " + deal);
+            assertNotNull(MoveGenerator.findMoves(initialState, result.getSolution()), "deal " + deal);
+            longest = Math.max(longest, result.getSolution().size());
+        }
+        assertTrue(longest > 64, "no search went deeper than the initial frames");
+    }
+
+    @Test
+    void rejectsDepthLimitsBeyondTheCap() {
+        SearchBudget budget = new SearchBudget();
+        assertThrows(IllegalArgumentException.class, () -> budget.setMaxDepth(SearchBudget.MAX_DEPTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> budget.setMaxDepth(0));
+    }
+}
@@ -0,0 +1,112 @@
+package search;
+
+import models.CompactState;
+import models.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.MicrosoftDeals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restartReloadsIndexAndReplaysPermutedDeal() throws IOException {
+        Path file = directory.resolve("solutions.log");
+        CompactState deal = MicrosoftDeals.deal(5);
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            cache.store(deal, solve(deal), "astar");
+        }
+        assertTrue(Files.size(Paths.get(file + ".idx")) > 0);
+
+        CompactState permuted = reversePiles(deal);
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            SearchResult replayed = cache.lookup(permuted);
+            assertNotNull(replayed);
+            assertTrue(replayed.isSolved());
+            assertEquals(0, replayed.getNodesVisited());
+            int[] moves = MoveGenerator.findMoves(permuted, replayed.getSolution());
+            assertNotNull(moves);
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals(Move.toNotation(moves[i]), replayed.getSolution().get(i).primaryMoveNotation);
+            }
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    @Test
+    void missingIndexIsRebuiltFromLog() throws IOException {
+        Path file = directory.resolve("solutions.log");
+        CompactState deal = MicrosoftDeals.deal(6);
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            cache.store(deal, solve(deal), "astar");
+        }
+        Files.write(Paths.get(file + ".idx"), new byte[0]);
+
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNotNull(cache.lookup(deal));
+        }
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNotNull(cache.lookup(deal));
+        }
+    }
+
+    @Test
+    void entryThatFailsReplayStaysDroppedAfterRestart() throws IOException {
+        Path file = directory.resolve("solutions.log");
+        CompactState deal = MicrosoftDeals.deal(7);
+        Files.write(file, String.format("%016x 1 1 astar 12%n", SolutionCache.key(deal)).getBytes(StandardCharsets.US_ASCII));
+
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNull(cache.lookup(deal));
+            assertEquals(1, cache.getStaleEntries());
+        }
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNull(cache.lookup(deal));
+            assertEquals(0, cache.getStaleEntries());
+            assertEquals(1, cache.getMisses());
+            cache.store(deal, solve(deal), "astar");
+        }
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNotNull(cache.lookup(deal));
+        }
+
+        Files.write(Paths.get(file + ".idx"), new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+        try (SolutionCache cache = new SolutionCache(16, file)) {
+            assertNotNull(cache.lookup(deal));
+            assertEquals(0, cache.getStaleEntries());
+        }
+    }
+
+    private static SearchResult solve(CompactState deal) {
+        SolverConfig config = new SolverConfig();
+        config.setVerbose(false);
+        SearchResult result = config.createSolver().search(deal);
+        assertTrue(result.isSolved());
+        return result;
+    }
+
+    private static CompactState reversePiles(CompactState state) {
+        CompactState reversed = new CompactState();
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            int source = CompactState.TABLEAU_PILES - 1 - pile;
+            for (int position = 0; position < state.pileSize(source); position++) {
+                reversed.pushTableau(pile, state.cardAt(source, position));
+            }
+        }
+        return reversed;
+    }
+}
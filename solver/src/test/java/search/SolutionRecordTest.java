@@ -0,0 +1,105 @@
+package search;
+
+import models.CompactState;
+import models.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.BoardLoader;
+import utils.MicrosoftDeals;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SolutionRecordTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void binaryAndTextFormsRoundTrip() throws IOException {
+        List<SolutionRecord> records = solvedRecords();
+        records.add(new SolutionRecord(99, "boards/my deal %1.txt", SearchResult.StopReason.ERROR, 0, 0, new int[0]));
+        records.add(new SolutionRecord(100, "seed:100", SearchResult.StopReason.NODE_LIMIT, 200000, 5400, new int[0]));
+
+        Path binary = directory.resolve("results.fcsr");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(binary)))) {
+            SolutionRecord.writeHeader(out);
+            for (SolutionRecord record : records) {
+                record.write(out);
+            }
+        }
+
+        Path text = directory.resolve("results.txt");
+        assertEquals(records.size(), SolutionRecord.binaryToText(binary, text));
+        Path copy = directory.resolve("copy.fcsr");
+        assertEquals(records.size(), SolutionRecord.textToBinary(text, copy));
+        assertArrayEquals(Files.readAllBytes(binary), Files.readAllBytes(copy));
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(copy))) {
+            SolutionRecord.readHeader(in);
+            for (SolutionRecord expected : records) {
+                SolutionRecord actual = SolutionRecord.read(in);
+                assertNotNull(actual);
+                assertEquals(expected.getDealId(), actual.getDealId());
+                assertEquals(expected.getDealName(), actual.getDealName());
+                assertEquals(expected.getStopReason(), actual.getStopReason());
+                assertEquals(expected.getNodesVisited(), actual.getNodesVisited());
+                assertEquals(expected.getElapsedMillis(), actual.getElapsedMillis());
+                assertEquals(expected.toText(), actual.toText());
+            }
+            assertNull(SolutionRecord.read(in));
+        }
+    }
+
+    private static List<SolutionRecord> solvedRecords() {
+        SolverConfig config = new SolverConfig();
+        config.setVerbose(false);
+        List<SolutionRecord> records = new ArrayList<>();
+        for (long deal = 1; deal <= 10; deal++) {
+            CompactState initialState = MicrosoftDeals.deal(deal);
+            SearchResult result = config.createSolver().search(initialState);
+            int[] moves = MoveGenerator.findMoves(initialState, result.getSolution());
+            assertNotNull(moves);
+            records.add(new SolutionRecord(deal, "#" + deal, result.getStopReason(), result.getNodesVisited(), result.getElapsedMillis(), moves));
+            for (int move : moves) {
+                assertEquals(Move.toNotation(move), Move.toNotation(Move.parseNotation(Move.toNotation(move))));
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void batchRecordsNameTheirSource() throws IOException, InterruptedException {
+        Path board = directory.resolve("board.txt");
+        BoardLoader.saveToFile(MicrosoftDeals.deal(7).toGameState(), board.toString());
+        Path list = directory.resolve("deals.txt");
+        Files.write(list, List.of("#5", "#7", board.toString()));
+
+        SolverConfig config = new SolverConfig();
+        Path output = directory.resolve("results.fcsr");
+        new BatchSolver(config, 1).run(BatchSolver.parseSource(list.toString()), output);
+
+        Set<String> names = new HashSet<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(output))) {
+            SolutionRecord.readHeader(in);
+            SolutionRecord record;
+            while ((record = SolutionRecord.read(in)) != null) {
+                names.add(record.getDealName());
+            }
+        }
+        assertEquals(Set.of("#5", "#7", board.toString()), names);
+    }
+}
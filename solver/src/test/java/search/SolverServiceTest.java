@@ -0,0 +1,92 @@
+package search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverServiceTest {
+
+    private SolverService service;
+
+    @BeforeEach
+    void startService() throws IOException {
+        SolverConfig config = new SolverConfig();
+        config.setAlgorithm(SolverConfig.Algorithm.ARA_STAR);
+        SearchBudget budget = new SearchBudget();
+        budget.setMaxNodes(5_000_000);
+        budget.setMaxTimeMillis(300_000);
+        config.setBudget(budget);
+        service = new SolverService(config, 1, 0, 1000);
+        service.start(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @AfterEach
+    void stopService() {
+        service.stop();
+    }
+
+    @Test
+    void slowSearchStreamsHeartbeatsBeforeTheResult() throws IOException {
+        HttpURLConnection connection = post("{\"deal\":\"#3\",\"maxNodes\":\"40000\"}");
+        assertEquals(200, connection.getResponseCode());
+        String body;
+        try (InputStream in = connection.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(body.startsWith(" "), "expected heartbeat padding before the result");
+        assertTrue(body.trim().startsWith("{\"status\":\"solved\",\"limit\":\"node_limit\""), body.trim());
+    }
+
+    @Test
+    void clientDisconnectCancelsTheSearch() throws Exception {
+        byte[] body = "{\"deal\":\"#1\"}".getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket(service.getAddress().getAddress(), service.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /solve HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+            Thread.sleep(SolverService.HEARTBEAT_MILLIS + 500);
+        }
+
+        long deadline = System.currentTimeMillis() + 20_000;
+        String stats = stats();
+        while (!stats.contains("\"completed\":1") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            stats = stats();
+        }
+        assertTrue(stats.contains("\"completed\":1"), stats);
+        assertTrue(stats.contains("\"inFlight\":0"), stats);
+    }
+
+    private HttpURLConnection post(String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url("/solve").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private String stats() throws IOException {
+        try (InputStream in = url("/stats").openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + service.getAddress().getPort() + path);
+    }
+}
@@ -0,0 +1,89 @@
+package utils;
+
+import models.CompactState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BinaryBoardFormatTest {
+
+    private static final int DEALS = 500;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void dealsRoundTripThroughBinaryFile() throws IOException {
+        Path file = directory.resolve("deals.fcdb");
+        assertEquals(DEALS, BinaryBoardFormat.write(DealRange.microsoft(1, DEALS), file));
+        assertEquals(BinaryBoardFormat.HEADER_BYTES + (long) DEALS * BinaryBoardFormat.RECORD_BYTES, Files.size(file));
+
+        BinaryBoardFormat.DealFile deals = BinaryBoardFormat.open(file);
+        assertEquals(DEALS, deals.size());
+        for (int index = 0; index < DEALS; index++) {
+            assertSameLayout(MicrosoftDeals.deal(index + 1), deals.get(index));
+        }
+    }
+
+    @Test
+    void binaryToBoardFilesAndBackIsByteIdentical() throws IOException {
+        Path first = directory.resolve("first.fcdb");
+        BinaryBoardFormat.write(DealRange.microsoft(1, 50), first);
+
+        List<CompactState> reloaded = new ArrayList<>();
+        BinaryBoardFormat.DealFile deals = BinaryBoardFormat.open(first);
+        for (long index = 0; index < deals.size(); index++) {
+            Path board = directory.resolve(index + ".txt");
+            BoardLoader.saveToFile(deals.get(index).toGameState(), board.toString());
+            reloaded.add(CompactState.fromGameState(BoardLoader.loadFromFile(board.toString())));
+        }
+
+        Path second = directory.resolve("second.fcdb");
+        BinaryBoardFormat.write(reloaded, second);
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    void partlyPlayedStatesRoundTrip() throws IOException {
+        List<CompactState> states = new ArrayList<>();
+        for (long deal = 1; deal <= 100; deal++) {
+            CompactState state = MicrosoftDeals.deal(deal);
+            state.setFreeCell(2, state.popTableau(0));
+            states.add(state.copy());
+            for (int pile = 1; pile < CompactState.TABLEAU_PILES; pile++) {
+                if (CompactState.rankOf(state.topCard(pile)) == 1) {
+                    state.addToHome(state.popTableau(pile));
+                    states.add(state.copy());
+                }
+            }
+        }
+
+        Path file = directory.resolve("played.fcdb");
+        BinaryBoardFormat.write(states, file);
+        BinaryBoardFormat.DealFile deals = BinaryBoardFormat.open(file);
+        for (int index = 0; index < states.size(); index++) {
+            assertSameLayout(states.get(index), deals.get(index));
+        }
+    }
+
+    private static void assertSameLayout(CompactState expected, CompactState actual) {
+        assertEquals(expected, actual);
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            assertEquals(expected.pileSize(pile), actual.pileSize(pile));
+            for (int position = 0; position < expected.pileSize(pile); position++) {
+                assertEquals(expected.cardAt(pile, position), actual.cardAt(pile, position));
+            }
+        }
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            assertEquals(expected.homeRank(suit), actual.homeRank(suit));
+        }
+    }
+}
@@ -1,18 +1,59 @@
+import metrics.JsonSnapshotSink;
 import models.Card;
 import models.GameState;
-import search.AStar;
+import search.BatchSolver;
+import search.HeuristicFunction;
+import search.HeuristicTuner;
+import search.SolutionCache;
+import search.SolutionRecord;
 import search.SolutionStep;
+import search.Solver;
+import search.SolverConfig;
+import search.SolverService;
+import utils.BinaryBoardFormat;
 import utils.BoardLoader;
-import java.util.ArrayList;
-import java.util.Collections;
+import utils.DealRange;
+import utils.SeededDeals;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
 
 public class Main {
 
+    private static final int DEFAULT_CACHE_ENTRIES = 10000;
+    private static final int DEFAULT_SERVICE_QUEUE = 64;
+    private static final int DEFAULT_SERVICE_WARMUP = 4;
+    private static final long DEFAULT_SERVICE_SLICE = 1000;
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].startsWith("--batch=")) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].startsWith("--tune=")) {
+            runTuning(args);
+            return;
+        }
+        if (args.length > 0 && args[0].startsWith("--convert=")) {
+            runConversion(args);
+            return;
+        }
+        if (args.length > 0 && args[0].startsWith("--serve=")) {
+            runService(args);
+            return;
+        }
+
         System.out.println("Starting FreeCell Solver...");
-        System.out.println("Usage: java Main [board_file.txt]");
+        System.out.println("Usage: java Main [board_file.txt|#deal|seed:N] [bucket|binary_heap] [--algorithm=astar|ara_star|ida_star] [--tt-bits=N] [--weight=W] [--initial-weight=W] [--threads=N] [--offheap-mb=N] [--closed-set-file=path] [--max-nodes=N] [--max-ms=N] [--max-depth=N] [--max-memory-mb=N] [--metrics-json=path] [--heuristic=default|admissible|weights.properties] [--cache=solutions.log]");
+        System.out.println("       java Main --batch=<directory|list.txt|deals.fcdb|[#]first-last|seed:first-last> [--output=results.csv|results.jsonl|results.fcsr] [--workers=N] [options]");
+        System.out.println("       java Main --tune=<directory|list.txt|deals.fcdb|first-last> --heuristics=default,admissible,weights.properties,... [options]");
+        System.out.println("       java Main --convert=<directory|list.txt|first-last|deals.fcdb|results.fcsr|results.txt> --output=<deals.fcdb|directory|results.txt|results.fcsr>");
+        System.out.println("       java Main --serve=[host:]port [--workers=N] [--queue=N] [--warmup=N] [--slice=expansions] [options]");
         System.out.println("Available boards: easy.txt, medium.txt, hard.txt, impossible.txt");
         System.out.println();
 
@@ -21,8 +62,14 @@ public class Main {
         if (args.length > 0) {
             String filename = args[0];
             try {
-                System.out.println("Loading game from file: " + filename);
-                initialState = BoardLoader.loadFromFile("boards/" + filename);
+                if (filename.startsWith("#") || filename.startsWith("seed:")) {
+                    System.out.println("Generating deal " + filename);
+                    DealRange deal = DealRange.parse(filename);
+                    initialState = deal.getGenerator().deal(deal.getFirst()).toGameState();
+                } else {
+                    System.out.println("Loading game from file: " + filename);
+                    initialState = BoardLoader.loadFromFile("boards/" + filename);
+                }
             } catch (Exception e) {
                 System.err.println("Error loading file: " + e.getMessage());
                 System.out.println("Available board files: easy.txt, medium.txt, hard.txt, impossible.txt");
@@ -87,9 +134,9 @@ public class Main {
                     }
                     break;
                 case 6:
-                    System.out.println("Running random shuffled game...");
-                    List<Card> deck = createShuffledDeck();
-                    initialState = createInitialGameState(deck);
+                    long seed = System.nanoTime();
+                    System.out.println("Running random shuffled game (seed:" + seed + ")...");
+                    initialState = SeededDeals.deal(seed).toGameState();
                     break;
                 case 7:
                     System.out.println("Running programmatic easy test case (nearly solved)...");
@@ -109,10 +156,22 @@ public class Main {
 
         printGameState(initialState);
 
-        AStar solver = new AStar();
+        SolverConfig config = new SolverConfig();
+        for (int i = 1; i < args.length; i++) {
+            if (!applySolverOption(config, args[i])) {
+                System.err.println("Ignoring invalid option: " + args[i]);
+            }
+        }
+        Solver solver = config.createSolver();
 
         System.out.println("\nSearching for a solution...");
-        List<SolutionStep> solutionPath = solver.solve(initialState);
+        List<SolutionStep> solutionPath;
+        try {
+            solutionPath = solver.solve(initialState);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid board: " + e.getMessage());
+            return;
+        }
 
         if (solutionPath != null && !solutionPath.isEmpty()) {
             System.out.println("\n--- DETAILED SOLUTION FOUND ---");
@@ -134,6 +193,185 @@ public class Main {
         }
     }
 
+    private static void runBatch(String[] args) {
+        String source = args[0].substring("--batch=".length());
+        String output = "batch_results.csv";
+        int workers = Runtime.getRuntime().availableProcessors();
+        SolverConfig config = new SolverConfig();
+
+        for (int i = 1; i < args.length; i++) {
+            try {
+                if (args[i].startsWith("--output=")) {
+                    output = args[i].substring("--output=".length());
+                } else if (args[i].startsWith("--workers=")) {
+                    workers = Integer.parseInt(args[i].substring("--workers=".length()));
+                } else if (!applySolverOption(config, args[i])) {
+                    System.err.println("Ignoring invalid option: " + args[i]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid option: " + args[i]);
+            }
+        }
+
+        try {
+            Iterable<BatchSolver.Deal> deals = BatchSolver.parseSource(source);
+            System.out.println("Solving deals from " + source + " with " + workers + " workers...");
+            new BatchSolver(config, workers).run(deals, Paths.get(output));
+        } catch (Exception e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+        }
+    }
+
+    private static void runTuning(String[] args) {
+        String source = args[0].substring("--tune=".length());
+        List<String> heuristics = Arrays.asList("default");
+        SolverConfig config = new SolverConfig();
+
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--heuristics=")) {
+                heuristics = Arrays.asList(args[i].substring("--heuristics=".length()).split(","));
+            } else if (!applySolverOption(config, args[i])) {
+                System.err.println("Ignoring invalid option: " + args[i]);
+            }
+        }
+
+        try {
+            Iterable<BatchSolver.Deal> deals = BatchSolver.parseSource(source);
+            new HeuristicTuner(config).run(deals, heuristics, System.out);
+        } catch (Exception e) {
+            System.err.println("Tuning run failed: " + e.getMessage());
+        }
+    }
+
+    private static void runConversion(String[] args) {
+        String source = args[0].substring("--convert=".length());
+        String output = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--output=")) {
+                output = args[i].substring("--output=".length());
+            } else {
+                System.err.println("Ignoring invalid option: " + args[i]);
+            }
+        }
+        if (output == null) {
+            System.err.println("Conversion needs --output=<target>");
+            return;
+        }
+
+        try {
+            long count;
+            if (source.endsWith(".fcsr")) {
+                count = SolutionRecord.binaryToText(Paths.get(source), Paths.get(output));
+            } else if (output.endsWith(".fcsr")) {
+                count = SolutionRecord.textToBinary(Paths.get(source), Paths.get(output));
+            } else if (output.endsWith(".fcdb")) {
+                count = BinaryBoardFormat.write(BatchSolver.states(BatchSolver.parseSource(source)), Paths.get(output));
+            } else if (source.endsWith(".fcdb")) {
+                count = writeBoardFiles(BinaryBoardFormat.open(Paths.get(source)), Paths.get(output));
+            } else {
+                System.err.println("Nothing to convert from " + source + " to " + output);
+                return;
+            }
+            System.out.println("Converted " + count + " records from " + source + " to " + output);
+        } catch (Exception e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+        }
+    }
+
+    private static long writeBoardFiles(BinaryBoardFormat.DealFile deals, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int digits = Long.toString(Math.max(deals.size() - 1, 0)).length();
+        for (long index = 0; index < deals.size(); index++) {
+            String name = String.format("%0" + digits + "d.txt", index);
+            BoardLoader.saveToFile(deals.get(index).toGameState(), directory.resolve(name).toString());
+        }
+        return deals.size();
+    }
+
+    private static void runService(String[] args) {
+        String address = args[0].substring("--serve=".length());
+        int workers = Runtime.getRuntime().availableProcessors();
+        int queue = DEFAULT_SERVICE_QUEUE;
+        int warmup = DEFAULT_SERVICE_WARMUP;
+        long slice = DEFAULT_SERVICE_SLICE;
+        SolverConfig config = new SolverConfig();
+
+        for (int i = 1; i < args.length; i++) {
+            try {
+                if (args[i].startsWith("--workers=")) {
+                    workers = Integer.parseInt(args[i].substring("--workers=".length()));
+                } else if (args[i].startsWith("--queue=")) {
+                    queue = Integer.parseInt(args[i].substring("--queue=".length()));
+                } else if (args[i].startsWith("--warmup=")) {
+                    warmup = Integer.parseInt(args[i].substring("--warmup=".length()));
+                } else if (args[i].startsWith("--slice=")) {
+                    slice = Long.parseLong(args[i].substring("--slice=".length()));
+                } else if (!applySolverOption(config, args[i])) {
+                    System.err.println("Ignoring invalid option: " + args[i]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid option: " + args[i]);
+            }
+        }
+
+        try {
+            int separator = address.lastIndexOf(':');
+            String host = separator < 0 ? "127.0.0.1" : address.substring(0, separator);
+            int port = Integer.parseInt(address.substring(separator + 1));
+            SolverService service = new SolverService(config, workers, queue, slice);
+            if (warmup > 0) {
+                System.out.println("Warming up " + workers + " workers on " + warmup + " deals each...");
+                service.warmUp(warmup);
+            }
+            service.start(new InetSocketAddress(host, port));
+            System.out.println("Solver service listening on " + service.getAddress() + " (POST /solve, GET /stats)");
+        } catch (Exception e) {
+            System.err.println("Could not start solver service: " + e.getMessage());
+        }
+    }
+
+    private static boolean applySolverOption(SolverConfig config, String option) {
+        try {
+            if (option.startsWith("--threads=")) {
+                config.setThreadCount(Integer.parseInt(option.substring("--threads=".length())));
+            } else if (option.startsWith("--offheap-mb=")) {
+                config.setOffHeapClosedSetBytes(Long.parseLong(option.substring("--offheap-mb=".length())) << 20);
+            } else if (option.startsWith("--closed-set-file=")) {
+                config.setClosedSetFile(Paths.get(option.substring("--closed-set-file=".length())));
+            } else if (option.startsWith("--max-nodes=")) {
+                config.getBudget().setMaxNodes(Long.parseLong(option.substring("--max-nodes=".length())));
+            } else if (option.startsWith("--max-ms=")) {
+                config.getBudget().setMaxTimeMillis(Long.parseLong(option.substring("--max-ms=".length())));
+            } else if (option.startsWith("--max-depth=")) {
+                config.getBudget().setMaxDepth(Integer.parseInt(option.substring("--max-depth=".length())));
+            } else if (option.startsWith("--max-memory-mb=")) {
+                config.getBudget().setMaxMemoryBytes(Long.parseLong(option.substring("--max-memory-mb=".length())) << 20);
+            } else if (option.startsWith("--algorithm=")) {
+                config.setAlgorithm(SolverConfig.Algorithm.valueOf(option.substring("--algorithm=".length()).toUpperCase()));
+            } else if (option.startsWith("--weight=")) {
+                config.setHeuristicWeight(Double.parseDouble(option.substring("--weight=".length())));
+            } else if (option.startsWith("--initial-weight=")) {
+                config.setInitialWeight(Double.parseDouble(option.substring("--initial-weight=".length())));
+            } else if (option.startsWith("--tt-bits=")) {
+                config.setTranspositionTableBits(Integer.parseInt(option.substring("--tt-bits=".length())));
+            } else if (option.startsWith("--cache=")) {
+                config.setSolutionCache(new SolutionCache(DEFAULT_CACHE_ENTRIES, Paths.get(option.substring("--cache=".length()))));
+            } else if (option.startsWith("--heuristic=")) {
+                config.setHeuristic(HeuristicFunction.forName(option.substring("--heuristic=".length())));
+            } else if (option.startsWith("--metrics-json=")) {
+                config.setMetricsSink(new JsonSnapshotSink(Paths.get(option.substring("--metrics-json=".length())), 1000));
+            } else {
+                config.setOpenListType(SolverConfig.OpenListType.valueOf(option.toUpperCase()));
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("Cannot read " + option + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     private static GameState createEasyTestCase() {
         GameState state = new GameState();
         
@@ -167,37 +405,6 @@ public class Main {
         return state;
     }
 
-    private static List<Card> createShuffledDeck() {
-        List<Card> deck = new ArrayList<>();
-        String[] suits = {"Clubs", "Diamonds", "Hearts", "Spades"};
-        String[] ranks = {"Ace", "2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King"};
-
-        for (String suit : suits) {
-            for (String rank : ranks) {
-                deck.add(new Card(suit, rank));
-            }
-        }
-        Collections.shuffle(deck);
-        return deck;
-    }
-
-    private static GameState createInitialGameState(List<Card> deck) {
-        GameState state = new GameState();
-        int cardIndex = 0;
-
-        for (int i = 0; i < 8; i++) {
-            int cardsToDeal = (i < 4) ? 7 : 6;
-            Stack<Card> currentPile = state.getTableauPiles().get(i);
-            for (int j = 0; j < cardsToDeal; j++) {
-                if (cardIndex < deck.size()) {
-                    currentPile.push(deck.get(cardIndex++));
-                }
-            }
-        }
-        System.out.println("Initial Game State created.");
-        return state;
-    }
-
     private static void printGameState(GameState state) {
         System.out.println("\n--- Current Game State ---");
         
@@ -0,0 +1,93 @@
+package metrics;
+
+import java.util.Locale;
+
+public class Histogram {
+
+    private long[] counts = new long[64];
+    private int offset;
+    private long count;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    public void record(int value) {
+        if (count == 0) {
+            offset = value - counts.length / 2;
+        }
+        ensureRange(value);
+        counts[value - offset]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private void ensureRange(int value) {
+        if (value >= offset && value < offset + counts.length) {
+            return;
+        }
+        int high = Math.max(offset + counts.length - 1, value);
+        int length = Math.max(counts.length * 2, high - Math.min(offset, value) + 1);
+        int low = value < offset ? high - length + 1 : offset;
+        long[] resized = new long[length];
+        System.arraycopy(counts, 0, resized, offset - low, counts.length);
+        counts = resized;
+        offset = low;
+    }
+
+    public void merge(Histogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            offset = other.offset;
+            counts = new long[other.counts.length];
+        }
+        ensureRange(other.min);
+        ensureRange(other.max);
+        for (int value = other.min; value <= other.max; value++) {
+            counts[value - offset] += other.counts[value - other.offset];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public int getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    public int getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int value = min; value < max; value++) {
+            seen += counts[value - offset];
+            if (seen >= target) {
+                return value;
+            }
+        }
+        return max;
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"count\":%d,\"mean\":%.2f,\"min\":%d,\"p50\":%d,\"p90\":%d,\"max\":%d}",
+            count, getMean(), getMin(), getPercentile(50), getPercentile(90), getMax());
+    }
+}
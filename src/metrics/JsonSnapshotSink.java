@@ -0,0 +1,47 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public class JsonSnapshotSink implements MetricsSink {
+
+    private final Path file;
+    private final long reportInterval;
+
+    public JsonSnapshotSink(Path file, long reportInterval) {
+        if (reportInterval < 1) {
+            throw new IllegalArgumentException("Report interval must be at least 1: " + reportInterval);
+        }
+        this.file = file;
+        this.reportInterval = reportInterval;
+    }
+
+    @Override
+    public long getReportInterval() {
+        return reportInterval;
+    }
+
+    @Override
+    public void onProgress(SearchMetrics metrics) {
+        write(metrics);
+    }
+
+    @Override
+    public void onFinish(SearchMetrics metrics) {
+        write(metrics);
+    }
+
+    private synchronized void write(SearchMetrics metrics) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, metrics.toJson().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write metrics snapshot " + file, e);
+        }
+    }
+}
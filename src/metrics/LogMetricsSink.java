@@ -0,0 +1,43 @@
+package metrics;
+
+import java.io.PrintStream;
+
+public class LogMetricsSink implements MetricsSink {
+
+    private final long reportInterval;
+    private final PrintStream out;
+
+    public LogMetricsSink(long reportInterval) {
+        this(reportInterval, System.out);
+    }
+
+    public LogMetricsSink(long reportInterval, PrintStream out) {
+        if (reportInterval < 1) {
+            throw new IllegalArgumentException("Report interval must be at least 1: " + reportInterval);
+        }
+        this.reportInterval = reportInterval;
+        this.out = out;
+    }
+
+    @Override
+    public long getReportInterval() {
+        return reportInterval;
+    }
+
+    @Override
+    public void onProgress(SearchMetrics metrics) {
+        out.printf("Visited nodes: %d, Generated: %d, Open list size: %d, Max depth: %d, Mean F-score: %.1f, Expansions/s: %.0f%n",
+            metrics.getNodesExpanded(), metrics.getNodesGenerated(), metrics.getOpenListSize(),
+            metrics.getDepths().getMax(), metrics.getFScores().getMean(), metrics.getExpansionsPerSecond());
+    }
+
+    @Override
+    public void onFinish(SearchMetrics metrics) {
+        out.printf("Search metrics: %d expanded, %d generated, %d closed / %d open duplicates, %d dead ends, peak open list %d%n",
+            metrics.getNodesExpanded(), metrics.getNodesGenerated(), metrics.getClosedDuplicates(),
+            metrics.getOpenDuplicates(), metrics.getDeadEnds(), metrics.getPeakOpenListSize());
+        out.printf("Time split: move generation %d ms, heuristic %d ms, hashing %d ms%n",
+            metrics.getMoveGenerationNanos() / 1_000_000, metrics.getHeuristicNanos() / 1_000_000,
+            metrics.getHashingNanos() / 1_000_000);
+    }
+}
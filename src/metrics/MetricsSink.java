@@ -0,0 +1,31 @@
+package metrics;
+
+public interface MetricsSink {
+
+    MetricsSink NONE = new MetricsSink() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void onProgress(SearchMetrics metrics) {
+        }
+
+        @Override
+        public void onFinish(SearchMetrics metrics) {
+        }
+    };
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    default long getReportInterval() {
+        return 1000;
+    }
+
+    void onProgress(SearchMetrics metrics);
+
+    void onFinish(SearchMetrics metrics);
+}
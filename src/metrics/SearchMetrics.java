@@ -0,0 +1,169 @@
+package metrics;
+
+import java.util.Locale;
+
+public class SearchMetrics {
+
+    private final long startNanos = System.nanoTime();
+    private long elapsedNanos = -1;
+
+    private long nodesExpanded;
+    private long nodesGenerated;
+    private long closedDuplicates;
+    private long openDuplicates;
+    private long deadEnds;
+    private long openListSize;
+    private long peakOpenListSize;
+
+    private final Histogram fScores = new Histogram();
+    private final Histogram heuristicScores = new Histogram();
+    private final Histogram depths = new Histogram();
+
+    private long moveGenerationNanos;
+    private long heuristicNanos;
+    private long hashingNanos;
+
+    public void recordExpansion() {
+        nodesExpanded++;
+    }
+
+    public void recordScores(int fScore, int heuristicScore, int depth) {
+        fScores.record(fScore);
+        heuristicScores.record(heuristicScore);
+        depths.record(depth);
+    }
+
+    public void recordGenerated() {
+        nodesGenerated++;
+    }
+
+    public void recordClosedDuplicate() {
+        closedDuplicates++;
+    }
+
+    public void recordOpenDuplicate() {
+        openDuplicates++;
+    }
+
+    public void recordDeadEnd() {
+        deadEnds++;
+    }
+
+    public void recordOpenListSize(long size) {
+        openListSize = size;
+        if (size > peakOpenListSize) {
+            peakOpenListSize = size;
+        }
+    }
+
+    public long lapMoveGeneration(long since) {
+        long now = System.nanoTime();
+        moveGenerationNanos += now - since;
+        return now;
+    }
+
+    public long lapHeuristic(long since) {
+        long now = System.nanoTime();
+        heuristicNanos += now - since;
+        return now;
+    }
+
+    public long lapHashing(long since) {
+        long now = System.nanoTime();
+        hashingNanos += now - since;
+        return now;
+    }
+
+    public void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public void merge(SearchMetrics other) {
+        nodesExpanded += other.nodesExpanded;
+        nodesGenerated += other.nodesGenerated;
+        closedDuplicates += other.closedDuplicates;
+        openDuplicates += other.openDuplicates;
+        deadEnds += other.deadEnds;
+        openListSize += other.openListSize;
+        peakOpenListSize += other.peakOpenListSize;
+        fScores.merge(other.fScores);
+        heuristicScores.merge(other.heuristicScores);
+        depths.merge(other.depths);
+        moveGenerationNanos += other.moveGenerationNanos;
+        heuristicNanos += other.heuristicNanos;
+        hashingNanos += other.hashingNanos;
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    public long getNodesGenerated() {
+        return nodesGenerated;
+    }
+
+    public long getClosedDuplicates() {
+        return closedDuplicates;
+    }
+
+    public long getOpenDuplicates() {
+        return openDuplicates;
+    }
+
+    public long getDeadEnds() {
+        return deadEnds;
+    }
+
+    public long getOpenListSize() {
+        return openListSize;
+    }
+
+    public long getPeakOpenListSize() {
+        return peakOpenListSize;
+    }
+
+    public Histogram getFScores() {
+        return fScores;
+    }
+
+    public Histogram getHeuristicScores() {
+        return heuristicScores;
+    }
+
+    public Histogram getDepths() {
+        return depths;
+    }
+
+    public long getMoveGenerationNanos() {
+        return moveGenerationNanos;
+    }
+
+    public long getHeuristicNanos() {
+        return heuristicNanos;
+    }
+
+    public long getHashingNanos() {
+        return hashingNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos >= 0 ? elapsedNanos : System.nanoTime() - startNanos;
+    }
+
+    public double getExpansionsPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0.0 : nodesExpanded * 1e9 / elapsed;
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT,
+            "{\"nodesExpanded\":%d,\"nodesGenerated\":%d,\"closedDuplicates\":%d,\"openDuplicates\":%d,\"deadEnds\":%d,"
+                + "\"openListSize\":%d,\"peakOpenListSize\":%d,\"expansionsPerSecond\":%.1f,\"elapsedMs\":%d,"
+                + "\"moveGenerationMs\":%d,\"heuristicMs\":%d,\"hashingMs\":%d,"
+                + "\"fScore\":%s,\"hScore\":%s,\"depth\":%s}",
+            nodesExpanded, nodesGenerated, closedDuplicates, openDuplicates, deadEnds,
+            openListSize, peakOpenListSize, getExpansionsPerSecond(), getElapsedNanos() / 1_000_000,
+            moveGenerationNanos / 1_000_000, heuristicNanos / 1_000_000, hashingNanos / 1_000_000,
+            fScores.toJson(), heuristicScores.toJson(), depths.toJson());
+    }
+}
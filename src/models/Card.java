@@ -3,12 +3,32 @@ package models;
 import java.util.Objects;
 
 public class Card {
+    static final String[] SUIT_NAMES = {"Clubs", "Diamonds", "Hearts", "Spades"};
+    static final String[] RANK_NAMES = {"Ace", "2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King"};
+
     private String suit;
     private String rank;
+    private final int index;
 
     public Card(String suit, String rank) {
         this.suit = suit;
         this.rank = rank;
+        this.index = indexOf(suit, rank);
+    }
+
+    private static int indexOf(String suit, String rank) {
+        int suitIndex = position(SUIT_NAMES, suit);
+        int rankIndex = position(RANK_NAMES, rank);
+        return suitIndex < 0 || rankIndex < 0 ? -1 : suitIndex * RANK_NAMES.length + rankIndex;
+    }
+
+    private static int position(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public String getSuit() {
@@ -19,6 +39,10 @@ public class Card {
         return rank;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return rank + " of " + suit;
@@ -29,11 +53,14 @@ public class Card {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Card card = (Card) o;
+        if (index >= 0 || card.index >= 0) {
+            return index == card.index;
+        }
         return Objects.equals(suit, card.suit) && Objects.equals(rank, card.rank);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(suit, rank);
+        return index >= 0 ? index : Objects.hash(suit, rank);
     }
 }
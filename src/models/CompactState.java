@@ -0,0 +1,489 @@
+package models;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+
+public final class CompactState {
+
+    public static final int TABLEAU_PILES = 8;
+    public static final int FREE_CELLS = 4;
+    public static final int SUITS = 4;
+    public static final int RANKS = 13;
+    public static final int DECK_SIZE = 52;
+    public static final int NO_CARD = -1;
+    public static final int ALL_PILES = (1 << TABLEAU_PILES) - 1;
+    public static final int CANONICAL_ENCODING_BYTES = 2 + FREE_CELLS + DECK_SIZE + TABLEAU_PILES;
+
+    private static final Card[] DECK = new Card[DECK_SIZE];
+    private static final byte[] SUIT_OF = new byte[DECK_SIZE];
+    private static final byte[] RANK_OF = new byte[DECK_SIZE];
+    private static final boolean[] RED = new boolean[DECK_SIZE];
+
+    private static final boolean VERIFY_ZOBRIST = Boolean.getBoolean("freecell.verifyZobrist");
+    private static final long[][] ZOBRIST_TABLEAU = new long[DECK_SIZE][DECK_SIZE + 1];
+    private static final long[] ZOBRIST_FREE_CELL = new long[DECK_SIZE];
+    private static final long[] ZOBRIST_HOME = new long[DECK_SIZE];
+
+    static {
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int rank = 1; rank <= RANKS; rank++) {
+                int card = cardIndex(suit, rank);
+                DECK[card] = new Card(Card.SUIT_NAMES[suit], Card.RANK_NAMES[rank - 1]);
+                SUIT_OF[card] = (byte) suit;
+                RANK_OF[card] = (byte) rank;
+                RED[card] = suit == 1 || suit == 2;
+            }
+        }
+
+        Random random = new Random(0x5EEDF4EEC311L);
+        for (int card = 0; card < DECK_SIZE; card++) {
+            for (int below = 0; below <= DECK_SIZE; below++) {
+                ZOBRIST_TABLEAU[card][below] = random.nextLong();
+            }
+            ZOBRIST_FREE_CELL[card] = random.nextLong();
+            ZOBRIST_HOME[card] = random.nextLong();
+        }
+    }
+
+    private final byte[] tableau;
+    private final byte[] offsets;
+    private final byte[] runLengths;
+    private final byte[] pileOfCard;
+    private final int[] pileEvaluations;
+    private int stalePiles = ALL_PILES;
+    private int freeCells;
+    private final byte[] home;
+    private long zobristKey;
+    private byte[] columnOrder;
+    private int canonicalFreeCells;
+
+    public CompactState() {
+        tableau = new byte[DECK_SIZE];
+        offsets = new byte[TABLEAU_PILES + 1];
+        runLengths = new byte[TABLEAU_PILES];
+        pileOfCard = new byte[DECK_SIZE];
+        pileEvaluations = new int[TABLEAU_PILES];
+        home = new byte[SUITS];
+    }
+
+    private CompactState(CompactState other) {
+        tableau = other.tableau.clone();
+        offsets = other.offsets.clone();
+        runLengths = other.runLengths.clone();
+        pileOfCard = other.pileOfCard.clone();
+        pileEvaluations = other.pileEvaluations.clone();
+        stalePiles = other.stalePiles;
+        freeCells = other.freeCells;
+        home = other.home.clone();
+        zobristKey = other.zobristKey;
+        columnOrder = other.columnOrder;
+        canonicalFreeCells = other.canonicalFreeCells;
+    }
+
+    public CompactState copy() {
+        return new CompactState(this);
+    }
+
+    public static int cardIndex(int suit, int rank) {
+        return suit * RANKS + rank - 1;
+    }
+
+    public static int suitOf(int card) {
+        return SUIT_OF[card];
+    }
+
+    public static int rankOf(int card) {
+        return RANK_OF[card];
+    }
+
+    public static boolean isRed(int card) {
+        return RED[card];
+    }
+
+    public static int encode(Card card) {
+        if (card == null) {
+            return NO_CARD;
+        }
+        if (card.getIndex() < 0) {
+            throw new IllegalArgumentException("Unknown card: " + card);
+        }
+        return card.getIndex();
+    }
+
+    public static Card toCard(int card) {
+        return card == NO_CARD ? null : DECK[card];
+    }
+
+    public int pileSize(int pile) {
+        return offsets[pile + 1] - offsets[pile];
+    }
+
+    public boolean isPileEmpty(int pile) {
+        return offsets[pile + 1] == offsets[pile];
+    }
+
+    public int cardAt(int pile, int position) {
+        return tableau[offsets[pile] + position];
+    }
+
+    public int topCard(int pile) {
+        return isPileEmpty(pile) ? NO_CARD : tableau[offsets[pile + 1] - 1];
+    }
+
+    public int orderedRunLength(int pile) {
+        return runLengths[pile];
+    }
+
+    public void pushTableau(int pile, int card) {
+        int end = offsets[pile + 1];
+        int below = topCard(pile);
+        zobristKey ^= ZOBRIST_TABLEAU[card][below + 1];
+        runLengths[pile] = (byte) (below != NO_CARD && continuesRun(card, below) ? runLengths[pile] + 1 : 1);
+        System.arraycopy(tableau, end, tableau, end + 1, offsets[TABLEAU_PILES] - end);
+        tableau[end] = (byte) card;
+        for (int i = pile + 1; i <= TABLEAU_PILES; i++) {
+            offsets[i]++;
+        }
+        pileOfCard[card] = (byte) (pile + 1);
+        stalePiles |= 1 << pile;
+        invalidateCanonicalForm();
+    }
+
+    public int popTableau(int pile) {
+        int end = offsets[pile + 1];
+        int card = tableau[end - 1];
+        System.arraycopy(tableau, end, tableau, end - 1, offsets[TABLEAU_PILES] - end);
+        for (int i = pile + 1; i <= TABLEAU_PILES; i++) {
+            offsets[i]--;
+        }
+        zobristKey ^= ZOBRIST_TABLEAU[card][topCard(pile) + 1];
+        runLengths[pile] = (byte) (runLengths[pile] > 1 ? runLengths[pile] - 1 : scanRunLength(pile));
+        pileOfCard[card] = 0;
+        stalePiles |= 1 << pile;
+        invalidateCanonicalForm();
+        return card;
+    }
+
+    public void moveTableauCards(int fromPile, int toPile, int count) {
+        int runEnd = offsets[fromPile + 1];
+        int runStart = runEnd - count;
+        int bottomCard = tableau[runStart];
+        int oldBelow = count < pileSize(fromPile) ? tableau[runStart - 1] : NO_CARD;
+        int newBelow = topCard(toPile);
+        zobristKey ^= ZOBRIST_TABLEAU[bottomCard][oldBelow + 1] ^ ZOBRIST_TABLEAU[bottomCard][newBelow + 1];
+        int fromRun = runLengths[fromPile];
+        int toRun = runLengths[toPile];
+        if (fromPile < toPile) {
+            rotate(runStart, runEnd, offsets[toPile + 1]);
+            for (int i = fromPile + 1; i <= toPile; i++) {
+                offsets[i] -= count;
+            }
+        } else {
+            rotate(offsets[toPile + 1], runStart, runEnd);
+            for (int i = toPile + 1; i <= fromPile; i++) {
+                offsets[i] += count;
+            }
+        }
+        if (count <= fromRun) {
+            runLengths[toPile] = (byte) (newBelow != NO_CARD && continuesRun(bottomCard, newBelow) ? toRun + count : count);
+        } else {
+            runLengths[toPile] = (byte) scanRunLength(toPile);
+        }
+        runLengths[fromPile] = (byte) (count < fromRun ? fromRun - count : scanRunLength(fromPile));
+        for (int i = offsets[toPile + 1] - count; i < offsets[toPile + 1]; i++) {
+            pileOfCard[tableau[i]] = (byte) (toPile + 1);
+        }
+        stalePiles |= 1 << fromPile | 1 << toPile;
+        invalidateCanonicalForm();
+    }
+
+    private static boolean continuesRun(int card, int below) {
+        return RED[card] != RED[below] && RANK_OF[card] == RANK_OF[below] - 1;
+    }
+
+    private int scanRunLength(int pile) {
+        int start = offsets[pile];
+        int position = offsets[pile + 1] - 1;
+        if (position < start) {
+            return 0;
+        }
+        while (position > start && continuesRun(tableau[position], tableau[position - 1])) {
+            position--;
+        }
+        return offsets[pile + 1] - position;
+    }
+
+    private void rotate(int start, int middle, int end) {
+        reverse(start, middle);
+        reverse(middle, end);
+        reverse(start, end);
+    }
+
+    private void reverse(int start, int end) {
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            byte tmp = tableau[i];
+            tableau[i] = tableau[j];
+            tableau[j] = tmp;
+        }
+    }
+
+    public int getFreeCell(int cell) {
+        return ((freeCells >>> (cell * 8)) & 0xFF) - 1;
+    }
+
+    public void setFreeCell(int cell, int card) {
+        int shift = cell * 8;
+        int previous = getFreeCell(cell);
+        if (previous != NO_CARD) {
+            zobristKey ^= ZOBRIST_FREE_CELL[previous];
+        }
+        if (card != NO_CARD) {
+            zobristKey ^= ZOBRIST_FREE_CELL[card];
+        }
+        freeCells = (freeCells & ~(0xFF << shift)) | ((card + 1) << shift);
+        invalidateCanonicalForm();
+    }
+
+    public int homeRank(int suit) {
+        return home[suit];
+    }
+
+    public void addToHome(int card) {
+        home[suitOf(card)]++;
+        if (rankOf(card) < RANKS) {
+            markPileStale(card + 1);
+        }
+        zobristKey ^= ZOBRIST_HOME[card];
+        invalidateCanonicalForm();
+    }
+
+    public int removeFromHome(int suit) {
+        int card = cardIndex(suit, home[suit]);
+        home[suit]--;
+        if (rankOf(card) < RANKS) {
+            markPileStale(card + 1);
+        }
+        zobristKey ^= ZOBRIST_HOME[card];
+        invalidateCanonicalForm();
+        return card;
+    }
+
+    private void markPileStale(int card) {
+        int pile = pileOfCard[card] - 1;
+        if (pile >= 0) {
+            stalePiles |= 1 << pile;
+        }
+    }
+
+    public int getStalePiles() {
+        return stalePiles;
+    }
+
+    public int getPileEvaluation(int pile) {
+        return pileEvaluations[pile];
+    }
+
+    public void setPileEvaluation(int pile, int evaluation) {
+        pileEvaluations[pile] = evaluation;
+        stalePiles &= ~(1 << pile);
+    }
+
+    public int getCardsInHomeCount() {
+        return home[0] + home[1] + home[2] + home[3];
+    }
+
+    public boolean isSolved() {
+        return getCardsInHomeCount() == DECK_SIZE;
+    }
+
+    public int getEmptyFreeCellsCount() {
+        int count = 0;
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            if (((freeCells >>> (cell * 8)) & 0xFF) == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getEmptyTableauPilesCount() {
+        int count = 0;
+        for (int pile = 0; pile < TABLEAU_PILES; pile++) {
+            if (isPileEmpty(pile)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static CompactState fromGameState(GameState state) {
+        int tableauCards = 0;
+        for (Stack<Card> pile : state.getTableauPiles()) {
+            tableauCards += pile.size();
+        }
+        if (state.getTableauPiles().size() != TABLEAU_PILES || tableauCards > DECK_SIZE) {
+            throw new IllegalArgumentException("Malformed deal: " + state.getTableauPiles().size() + " tableau piles holding " + tableauCards + " cards");
+        }
+        CompactState compact = new CompactState();
+        for (int pile = 0; pile < TABLEAU_PILES; pile++) {
+            for (Card card : state.getTableauPiles().get(pile)) {
+                compact.pushTableau(pile, encode(card));
+            }
+        }
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            compact.setFreeCell(cell, encode(state.getFreeCells().get(cell)));
+        }
+        for (Stack<Card> homePile : state.getHomeCells()) {
+            if (!homePile.isEmpty()) {
+                int top = encode(homePile.peek());
+                for (int rank = 1; rank <= rankOf(top); rank++) {
+                    compact.addToHome(cardIndex(suitOf(top), rank));
+                }
+            }
+        }
+        return compact;
+    }
+
+    public GameState toGameState() {
+        GameState state = new GameState();
+        for (int pile = 0; pile < TABLEAU_PILES; pile++) {
+            Stack<Card> target = state.getTableauPiles().get(pile);
+            for (int i = 0; i < pileSize(pile); i++) {
+                target.push(toCard(cardAt(pile, i)));
+            }
+        }
+        List<Card> cells = state.getFreeCells();
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            cells.set(cell, toCard(getFreeCell(cell)));
+        }
+        for (int suit = 0; suit < SUITS; suit++) {
+            Stack<Card> homePile = state.getHomeCells().get(suit);
+            for (int rank = 1; rank <= home[suit]; rank++) {
+                homePile.push(toCard(cardIndex(suit, rank)));
+            }
+        }
+        return state;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public long computeZobristKey() {
+        long key = 0L;
+        for (int pile = 0; pile < TABLEAU_PILES; pile++) {
+            int below = NO_CARD;
+            for (int i = offsets[pile]; i < offsets[pile + 1]; i++) {
+                key ^= ZOBRIST_TABLEAU[tableau[i]][below + 1];
+                below = tableau[i];
+            }
+        }
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            int card = getFreeCell(cell);
+            if (card != NO_CARD) {
+                key ^= ZOBRIST_FREE_CELL[card];
+            }
+        }
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int rank = 1; rank <= home[suit]; rank++) {
+                key ^= ZOBRIST_HOME[cardIndex(suit, rank)];
+            }
+        }
+        return key;
+    }
+
+    private void invalidateCanonicalForm() {
+        columnOrder = null;
+        if (VERIFY_ZOBRIST && zobristKey != computeZobristKey()) {
+            throw new IllegalStateException("Incremental Zobrist key diverged from full recompute");
+        }
+    }
+
+    private void ensureCanonicalForm() {
+        if (columnOrder != null) {
+            return;
+        }
+
+        byte[] order = new byte[TABLEAU_PILES];
+        for (int pile = 0; pile < TABLEAU_PILES; pile++) {
+            int j = pile;
+            while (j > 0 && comparePiles(order[j - 1], pile) > 0) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = (byte) pile;
+        }
+
+        int[] cells = new int[FREE_CELLS];
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            cells[cell] = (freeCells >>> (cell * 8)) & 0xFF;
+        }
+        Arrays.sort(cells);
+        int packed = 0;
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            packed |= cells[cell] << (cell * 8);
+        }
+
+        canonicalFreeCells = packed;
+        columnOrder = order;
+    }
+
+    public int canonicalPile(int position) {
+        ensureCanonicalForm();
+        return columnOrder[position];
+    }
+
+    public int writeCanonicalEncoding(byte[] buffer) {
+        ensureCanonicalForm();
+        int position = 0;
+        buffer[position++] = (byte) (home[0] | (home[1] << 4));
+        buffer[position++] = (byte) (home[2] | (home[3] << 4));
+        for (int cell = 0; cell < FREE_CELLS; cell++) {
+            buffer[position++] = (byte) (canonicalFreeCells >>> (cell * 8));
+        }
+        for (int i = 0; i < TABLEAU_PILES; i++) {
+            int pile = columnOrder[i];
+            for (int j = offsets[pile]; j < offsets[pile + 1]; j++) {
+                buffer[position++] = (byte) (tableau[j] + 1);
+            }
+            buffer[position++] = 0;
+        }
+        Arrays.fill(buffer, position, CANONICAL_ENCODING_BYTES, (byte) 0);
+        return position;
+    }
+
+    private int comparePiles(int first, int second) {
+        return Arrays.compare(tableau, offsets[first], offsets[first + 1], tableau, offsets[second], offsets[second + 1]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactState other = (CompactState) o;
+        if (zobristKey != other.zobristKey || !Arrays.equals(home, other.home)) {
+            return false;
+        }
+
+        ensureCanonicalForm();
+        other.ensureCanonicalForm();
+        if (canonicalFreeCells != other.canonicalFreeCells) {
+            return false;
+        }
+        for (int i = 0; i < TABLEAU_PILES; i++) {
+            int pile = columnOrder[i];
+            int otherPile = other.columnOrder[i];
+            if (!Arrays.equals(tableau, offsets[pile], offsets[pile + 1], other.tableau, other.offsets[otherPile], other.offsets[otherPile + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (zobristKey ^ (zobristKey >>> 32));
+    }
+}
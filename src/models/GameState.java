@@ -44,31 +44,18 @@ public class GameState {
         GameState newGameState = new GameState();
 
         for (int i = 0; i < tableauPiles.size(); i++) {
-            Stack<Card> originalPile = tableauPiles.get(i);
             Stack<Card> newPile = new Stack<>();
-            List<Card> tempCards = new ArrayList<>(originalPile);
-            for (Card card : tempCards) {
-                newPile.push(new Card(card.getSuit(), card.getRank()));
-            }
+            newPile.addAll(tableauPiles.get(i));
             newGameState.getTableauPiles().set(i, newPile);
         }
 
         for (int i = 0; i < freeCells.size(); i++) {
-            Card originalCard = freeCells.get(i);
-            if (originalCard != null) {
-                newGameState.getFreeCells().set(i, new Card(originalCard.getSuit(), originalCard.getRank()));
-            } else {
-                newGameState.getFreeCells().set(i, null);
-            }
+            newGameState.getFreeCells().set(i, freeCells.get(i));
         }
 
         for (int i = 0; i < homeCells.size(); i++) {
-            Stack<Card> originalHomePile = homeCells.get(i);
             Stack<Card> newHomePile = new Stack<>();
-            List<Card> tempCards = new ArrayList<>(originalHomePile);
-            for (Card card : tempCards) {
-                newHomePile.push(new Card(card.getSuit(), card.getRank()));
-            }
+            newHomePile.addAll(homeCells.get(i));
             newGameState.getHomeCells().set(i, newHomePile);
         }
 
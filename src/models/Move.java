@@ -0,0 +1,134 @@
+package models;
+
+public final class Move {
+
+    public static final int TABLEAU_TO_HOME = 0;
+    public static final int FREECELL_TO_HOME = 1;
+    public static final int FREECELL_TO_TABLEAU = 2;
+    public static final int TABLEAU_TO_TABLEAU = 3;
+    public static final int TABLEAU_TO_FREECELL = 4;
+
+    public static final int NONE = -1;
+
+    private Move() {
+    }
+
+    public static int of(int kind, int from, int to, int count, int card) {
+        return kind | (from << 3) | (to << 7) | (count << 11) | (card << 17);
+    }
+
+    public static int kind(int move) {
+        return move & 0x7;
+    }
+
+    public static int from(int move) {
+        return (move >>> 3) & 0xF;
+    }
+
+    public static int to(int move) {
+        return (move >>> 7) & 0xF;
+    }
+
+    public static int count(int move) {
+        return (move >>> 11) & 0x3F;
+    }
+
+    public static int card(int move) {
+        return (move >>> 17) & 0x3F;
+    }
+
+    public static void apply(CompactState state, int move) {
+        switch (kind(move)) {
+            case TABLEAU_TO_HOME:
+                state.addToHome(state.popTableau(from(move)));
+                break;
+            case FREECELL_TO_HOME:
+                state.setFreeCell(from(move), CompactState.NO_CARD);
+                state.addToHome(card(move));
+                break;
+            case FREECELL_TO_TABLEAU:
+                state.setFreeCell(from(move), CompactState.NO_CARD);
+                state.pushTableau(to(move), card(move));
+                break;
+            case TABLEAU_TO_TABLEAU:
+                state.moveTableauCards(from(move), to(move), count(move));
+                break;
+            case TABLEAU_TO_FREECELL:
+                state.setFreeCell(to(move), state.popTableau(from(move)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown move kind: " + kind(move));
+        }
+    }
+
+    public static void undo(CompactState state, int move) {
+        switch (kind(move)) {
+            case TABLEAU_TO_HOME:
+                state.pushTableau(from(move), state.removeFromHome(CompactState.suitOf(card(move))));
+                break;
+            case FREECELL_TO_HOME:
+                state.setFreeCell(from(move), state.removeFromHome(CompactState.suitOf(card(move))));
+                break;
+            case FREECELL_TO_TABLEAU:
+                state.setFreeCell(from(move), state.popTableau(to(move)));
+                break;
+            case TABLEAU_TO_TABLEAU:
+                state.moveTableauCards(to(move), from(move), count(move));
+                break;
+            case TABLEAU_TO_FREECELL:
+                state.setFreeCell(to(move), CompactState.NO_CARD);
+                state.pushTableau(from(move), card(move));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown move kind: " + kind(move));
+        }
+    }
+
+    public static String toNotation(int move) {
+        int from = from(move);
+        int to = to(move);
+        switch (kind(move)) {
+            case TABLEAU_TO_HOME:
+                return (from + 1) + "h";
+            case FREECELL_TO_HOME:
+                return (char) ('a' + from) + "h";
+            case FREECELL_TO_TABLEAU:
+                return (char) ('a' + from) + String.valueOf(to + 1);
+            case TABLEAU_TO_TABLEAU:
+                return (from + 1) + String.valueOf(to + 1) + (count(move) > 1 ? ":" + count(move) : "");
+            default:
+                return (from + 1) + String.valueOf((char) ('a' + to));
+        }
+    }
+
+    public static int parseNotation(String token) {
+        int count = 1;
+        int separator = token.indexOf(':');
+        if (separator >= 0) {
+            count = Integer.parseInt(token.substring(separator + 1));
+            token = token.substring(0, separator);
+        }
+        if (token.length() != 2) {
+            throw new IllegalArgumentException("Invalid move notation: " + token);
+        }
+
+        char source = token.charAt(0);
+        char destination = token.charAt(1);
+        boolean fromCell = source >= 'a' && source <= 'd';
+        int from = fromCell ? source - 'a' : source - '1';
+        if (from < 0 || from >= (fromCell ? CompactState.FREE_CELLS : CompactState.TABLEAU_PILES) || count < 1 || count > CompactState.RANKS) {
+            throw new IllegalArgumentException("Invalid move notation: " + token);
+        }
+        if (destination == 'h') {
+            return of(fromCell ? FREECELL_TO_HOME : TABLEAU_TO_HOME, from, 0, 1, 0);
+        }
+        if (destination >= 'a' && destination <= 'd' && !fromCell) {
+            return of(TABLEAU_TO_FREECELL, from, destination - 'a', 1, 0);
+        }
+        int to = destination - '1';
+        if (to < 0 || to >= CompactState.TABLEAU_PILES) {
+            throw new IllegalArgumentException("Invalid move notation: " + token);
+        }
+        return of(fromCell ? FREECELL_TO_TABLEAU : TABLEAU_TO_TABLEAU, from, to, count, 0);
+    }
+}
@@ -1,20 +1,32 @@
 package rules;
 
 import models.Card;
+import models.CompactState;
 import models.GameState;
 
 import java.util.Stack;
-import java.util.List;
-import java.util.ArrayList;
 
 public class Rules {
 
+    private static final long[] STACKS_ON = new long[CompactState.DECK_SIZE];
+
+    static {
+        for (int card = 0; card < CompactState.DECK_SIZE; card++) {
+            for (int destination = 0; destination < CompactState.DECK_SIZE; destination++) {
+                if (CompactState.isRed(card) != CompactState.isRed(destination)
+                    && CompactState.rankOf(card) == CompactState.rankOf(destination) - 1) {
+                    STACKS_ON[card] |= 1L << destination;
+                }
+            }
+        }
+    }
+
     public static boolean isRed(Card card) {
-        return card.getSuit().equals("Diamonds") || card.getSuit().equals("Hearts");
+        return card.getIndex() >= 0 && CompactState.isRed(card.getIndex());
     }
 
     public static boolean isBlack(Card card) {
-        return card.getSuit().equals("Clubs") || card.getSuit().equals("Spades");
+        return card.getIndex() >= 0 && !CompactState.isRed(card.getIndex());
     }
 
     public static int getRankValue(String rank) {
@@ -36,6 +48,10 @@ public class Rules {
         }
     }
 
+    private static boolean canStackOn(Card card, Card destinationCard) {
+        return card.getIndex() >= 0 && destinationCard.getIndex() >= 0 && canStackOn(card.getIndex(), destinationCard.getIndex());
+    }
+
     public static boolean canMoveTableauToFreeCell(GameState state, int tableauPileIndex, int freeCellIndex) {
         if (tableauPileIndex < 0 || tableauPileIndex >= state.getTableauPiles().size() ||
             freeCellIndex < 0 || freeCellIndex >= state.getFreeCells().size()) {
@@ -62,16 +78,7 @@ public class Rules {
         }
 
         Stack<Card> tableauPile = state.getTableauPiles().get(tableauPileIndex);
-
-        if (tableauPile.isEmpty()) {
-            return true;
-        } else {
-            Card topTableauCard = tableauPile.peek();
-            boolean alternatingColor = (isRed(cardToMove) && isBlack(topTableauCard)) || (isBlack(cardToMove) && isRed(topTableauCard));
-            boolean oneRankLower = getRankValue(cardToMove.getRank()) == getRankValue(topTableauCard.getRank()) - 1;
-
-            return alternatingColor && oneRankLower;
-        }
+        return tableauPile.isEmpty() || canStackOn(cardToMove, tableauPile.peek());
     }
 
     public static boolean canMoveTableauToHomeCell(GameState state, int tableauPileIndex) {
@@ -102,17 +109,20 @@ public class Rules {
     }
 
     private static boolean canMoveToHomeCell(GameState state, Card cardToMove) {
-        List<Stack<Card>> homeCells = state.getHomeCells();
+        int card = cardToMove.getIndex();
+        if (card < 0) {
+            return false;
+        }
 
-        for (Stack<Card> homeCellPile : homeCells) {
+        for (Stack<Card> homeCellPile : state.getHomeCells()) {
             if (homeCellPile.isEmpty()) {
-                if (getRankValue(cardToMove.getRank()) == 1) {
+                if (CompactState.rankOf(card) == 1) {
                     return true;
                 }
             } else {
-                Card topHomeCard = homeCellPile.peek();
-                if (cardToMove.getSuit().equals(topHomeCard.getSuit())) {
-                    return getRankValue(cardToMove.getRank()) == getRankValue(topHomeCard.getRank()) + 1;
+                int topHomeCard = homeCellPile.peek().getIndex();
+                if (topHomeCard >= 0 && CompactState.suitOf(card) == CompactState.suitOf(topHomeCard)) {
+                    return card == topHomeCard + 1;
                 }
             }
         }
@@ -127,24 +137,14 @@ public class Rules {
         Stack<Card> fromPile = state.getTableauPiles().get(fromPileIndex);
         if (fromPile.isEmpty()) return false;
 
-        Card cardToMove = fromPile.peek();
-
         Stack<Card> toPile = state.getTableauPiles().get(toPileIndex);
-
-        if (toPile.isEmpty()) {
-            return true;
-        } else {
-            Card topToPileCard = toPile.peek();
-            boolean alternatingColor = (isRed(cardToMove) && isBlack(topToPileCard)) || (isBlack(cardToMove) && isRed(topToPileCard));
-            boolean oneRankLower = getRankValue(cardToMove.getRank()) == getRankValue(topToPileCard.getRank()) - 1;
-            return alternatingColor && oneRankLower;
-        }
+        return toPile.isEmpty() || canStackOn(fromPile.peek(), toPile.peek());
     }
 
     public static int getMaxMovableCards(GameState state) {
         int emptyFreeCells = state.getEmptyFreeCellsCount();
         int emptyTableauPiles = state.getEmptyTableauPilesCount();
-        return (emptyFreeCells + 1) * (int) Math.pow(2, emptyTableauPiles);
+        return (emptyFreeCells + 1) << emptyTableauPiles;
     }
 
     public static boolean canMoveMultipleTableauCards(GameState state, int fromPileIndex, int toPileIndex, int numCards) {
@@ -162,41 +162,114 @@ public class Rules {
             return false;
         }
 
+        int bottom = fromPile.size() - numCards;
+        for (int i = bottom; i < fromPile.size() - 1; i++) {
+            if (!canStackOn(fromPile.get(i + 1), fromPile.get(i))) {
+                return false;
+            }
+        }
+
         Stack<Card> toPile = state.getTableauPiles().get(toPileIndex);
-        Card destinationCard = toPile.isEmpty() ? null : toPile.peek();
+        return toPile.isEmpty() || canStackOn(fromPile.get(bottom), toPile.peek());
+    }
 
-        List<Card> cardsToMoveList = new ArrayList<>();
-        for (int i = 0; i < numCards; i++) {
-            cardsToMoveList.add(0, fromPile.pop());
+    public static boolean isRed(int card) {
+        return CompactState.isRed(card);
+    }
+
+    private static boolean canStackOn(int card, int destinationCard) {
+        return (STACKS_ON[card] >>> destinationCard & 1L) != 0;
+    }
+
+    public static boolean canMoveTableauToFreeCell(CompactState state, int tableauPileIndex, int freeCellIndex) {
+        if (tableauPileIndex < 0 || tableauPileIndex >= CompactState.TABLEAU_PILES ||
+            freeCellIndex < 0 || freeCellIndex >= CompactState.FREE_CELLS) {
+            return false;
         }
+        return !state.isPileEmpty(tableauPileIndex) && state.getFreeCell(freeCellIndex) == CompactState.NO_CARD;
+    }
 
-        boolean validSequence = true;
-        for (int i = 0; i < numCards - 1; i++) {
-            Card current = cardsToMoveList.get(i);
-            Card next = cardsToMoveList.get(i + 1);
-            if (!((isRed(current) && isBlack(next)) || (isBlack(current) && isRed(next))) ||
-                getRankValue(current.getRank()) != getRankValue(next.getRank()) + 1) {
-                validSequence = false;
-                break;
-            }
+    public static boolean canMoveFreeCellToTableau(CompactState state, int freeCellIndex, int tableauPileIndex) {
+        if (freeCellIndex < 0 || freeCellIndex >= CompactState.FREE_CELLS ||
+            tableauPileIndex < 0 || tableauPileIndex >= CompactState.TABLEAU_PILES) {
+            return false;
         }
 
-        Card bottomOfSequenceCard = cardsToMoveList.get(0);
-        if (validSequence) {
-            if (destinationCard == null) {
-            } else {
-                boolean alternatingColor = (isRed(bottomOfSequenceCard) && isBlack(destinationCard)) || (isBlack(bottomOfSequenceCard) && isRed(destinationCard));
-                boolean oneRankLower = getRankValue(bottomOfSequenceCard.getRank()) == getRankValue(destinationCard.getRank()) - 1;
-                if (!(alternatingColor && oneRankLower)) {
-                    validSequence = false;
-                }
-            }
+        int cardToMove = state.getFreeCell(freeCellIndex);
+        if (cardToMove == CompactState.NO_CARD) {
+            return false;
+        }
+        return state.isPileEmpty(tableauPileIndex) || canStackOn(cardToMove, state.topCard(tableauPileIndex));
+    }
+
+    public static boolean canMoveTableauToHomeCell(CompactState state, int tableauPileIndex) {
+        if (tableauPileIndex < 0 || tableauPileIndex >= CompactState.TABLEAU_PILES || state.isPileEmpty(tableauPileIndex)) {
+            return false;
+        }
+        return canMoveToHomeCell(state, state.topCard(tableauPileIndex));
+    }
+
+    public static boolean canMoveFreeCellToHomeCell(CompactState state, int freeCellIndex) {
+        if (freeCellIndex < 0 || freeCellIndex >= CompactState.FREE_CELLS) {
+            return false;
+        }
+
+        int cardToMove = state.getFreeCell(freeCellIndex);
+        return cardToMove != CompactState.NO_CARD && canMoveToHomeCell(state, cardToMove);
+    }
+
+    private static boolean canMoveToHomeCell(CompactState state, int cardToMove) {
+        return state.homeRank(CompactState.suitOf(cardToMove)) == CompactState.rankOf(cardToMove) - 1;
+    }
+
+    public static boolean canMoveTableauToTableau(CompactState state, int fromPileIndex, int toPileIndex) {
+        if (fromPileIndex < 0 || fromPileIndex >= CompactState.TABLEAU_PILES || toPileIndex < 0 || toPileIndex >= CompactState.TABLEAU_PILES || fromPileIndex == toPileIndex) {
+            return false;
+        }
+        if (state.isPileEmpty(fromPileIndex)) return false;
+
+        return state.isPileEmpty(toPileIndex) || canStackOn(state.topCard(fromPileIndex), state.topCard(toPileIndex));
+    }
+
+    public static int getMaxMovableCards(CompactState state) {
+        return (state.getEmptyFreeCellsCount() + 1) << state.getEmptyTableauPilesCount();
+    }
+
+    public static boolean canMoveMultipleTableauCards(CompactState state, int fromPileIndex, int toPileIndex, int numCards) {
+        if (fromPileIndex < 0 || fromPileIndex >= CompactState.TABLEAU_PILES ||
+            toPileIndex < 0 || toPileIndex >= CompactState.TABLEAU_PILES ||
+            fromPileIndex == toPileIndex) {
+            return false;
         }
 
-        for (Card card : cardsToMoveList) {
-            fromPile.push(card);
+        int fromSize = state.pileSize(fromPileIndex);
+        if (fromSize < numCards || numCards <= 0) {
+            return false;
+        }
+        if (numCards > getMaxMovableCards(state)) {
+            return false;
         }
 
-        return validSequence;
+        if (numCards > state.orderedRunLength(fromPileIndex)) {
+            return false;
+        }
+
+        int bottom = fromSize - numCards;
+        return state.isPileEmpty(toPileIndex) || canStackOn(state.cardAt(fromPileIndex, bottom), state.topCard(toPileIndex));
+    }
+
+    public static int getSupermoveLength(CompactState state, int fromPileIndex, int toPileIndex) {
+        int limit = Math.min(state.orderedRunLength(fromPileIndex), getMaxMovableCards(state));
+        if (state.isPileEmpty(toPileIndex)) {
+            return limit;
+        }
+
+        int destinationCard = state.topCard(toPileIndex);
+        int numCards = CompactState.rankOf(destinationCard) - CompactState.rankOf(state.topCard(fromPileIndex));
+        if (numCards < 1 || numCards > limit) {
+            return 0;
+        }
+        int bottom = state.pileSize(fromPileIndex) - numCards;
+        return canStackOn(state.cardAt(fromPileIndex, bottom), destinationCard) ? numCards : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package rules;
+
+import models.CompactState;
+import models.Move;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class Solvability {
+
+    private static final int MAX_ESCAPE_STATES = 16;
+
+    public static String findStructuralProblem(CompactState state) {
+        String problem = findCardProblem(state);
+        if (problem != null) {
+            return problem;
+        }
+        if (isDeadEnd(state)) {
+            return "every suit is blocked and no free cell or column can be opened from the initial position";
+        }
+        return null;
+    }
+
+    public static String findCardProblem(CompactState state) {
+        int[] seen = new int[CompactState.DECK_SIZE];
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            for (int rank = 1; rank <= state.homeRank(suit); rank++) {
+                seen[CompactState.cardIndex(suit, rank)]++;
+            }
+        }
+        for (int cell = 0; cell < CompactState.FREE_CELLS; cell++) {
+            int card = state.getFreeCell(cell);
+            if (card != CompactState.NO_CARD) {
+                seen[card]++;
+            }
+        }
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            for (int position = 0; position < state.pileSize(pile); position++) {
+                seen[state.cardAt(pile, position)]++;
+            }
+        }
+
+        for (int card = 0; card < CompactState.DECK_SIZE; card++) {
+            if (seen[card] == 0) {
+                return "card " + CompactState.toCard(card) + " is missing";
+            }
+            if (seen[card] > 1) {
+                return "card " + CompactState.toCard(card) + " appears " + seen[card] + " times";
+            }
+        }
+        return null;
+    }
+
+    public static boolean isDeadEnd(CompactState state) {
+        if (state.isSolved() || hasFreeResource(state) || hasEscape(state) || !hasCyclicBlocking(state)) {
+            return false;
+        }
+        CompactState board = state.copy();
+        Set<Long> visited = new HashSet<>();
+        visited.add(board.getZobristKey());
+        return !canReachEscape(board, visited);
+    }
+
+    public static boolean hasCyclicBlocking(CompactState state) {
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            if (state.homeRank(suit) < CompactState.RANKS && !isBuried(state, CompactState.cardIndex(suit, state.homeRank(suit) + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBuried(CompactState state, int card) {
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            for (int position = 0; position < state.pileSize(pile) - 1; position++) {
+                if (state.cardAt(pile, position) == card) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean canReachEscape(CompactState board, Set<Long> visited) {
+        for (int fromPile = 0; fromPile < CompactState.TABLEAU_PILES; fromPile++) {
+            for (int toPile = 0; toPile < CompactState.TABLEAU_PILES; toPile++) {
+                if (!Rules.canMoveTableauToTableau(board, fromPile, toPile)) {
+                    continue;
+                }
+                int move = Move.of(Move.TABLEAU_TO_TABLEAU, fromPile, toPile, 1, board.topCard(fromPile));
+                Move.apply(board, move);
+                try {
+                    if (!visited.add(board.getZobristKey())) {
+                        continue;
+                    }
+                    if (visited.size() > MAX_ESCAPE_STATES || hasFreeResource(board) || hasEscape(board) || canReachEscape(board, visited)) {
+                        return true;
+                    }
+                } finally {
+                    Move.undo(board, move);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasFreeResource(CompactState state) {
+        return state.getEmptyFreeCellsCount() > 0 || state.getEmptyTableauPilesCount() > 0;
+    }
+
+    private static boolean hasEscape(CompactState state) {
+        for (int cell = 0; cell < CompactState.FREE_CELLS; cell++) {
+            if (Rules.canMoveFreeCellToHomeCell(state, cell)) {
+                return true;
+            }
+            for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+                if (Rules.canMoveFreeCellToTableau(state, cell, pile)) {
+                    return true;
+                }
+            }
+        }
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            if (Rules.canMoveTableauToHomeCell(state, pile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,323 +1,256 @@
 package search;
 
-import models.Card;
-import models.GameState;
-import rules.Rules;
+import metrics.MetricsSink;
+import metrics.SearchMetrics;
+import models.CompactState;
+import models.Move;
+import rules.Solvability;
 
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.ArrayList;
-import java.util.PriorityQueue;
-import java.util.Collections;
-import java.util.Stack;
 
-public class AStar {
+public class AStar implements Solver {
 
-    private Heuristic heuristic;
-    private static final int MAX_SEARCH_DEPTH = 80;
+    private HeuristicFunction heuristic;
+    private SolverConfig config;
+    private static final int STATE_CHECKPOINT_INTERVAL = 8;
+
+    private final HeapStateSet closedStates = new HeapStateSet();
+    private final HashMap<Long, Node> openNodes = new HashMap<>();
+    private boolean reusableStructuresInUse;
 
     public AStar() {
-        this.heuristic = new Heuristic();
+        this(new SolverConfig());
     }
 
-    public List<SolutionStep> solve(GameState initialState) {
-
-        PriorityQueue<Node> openList = new PriorityQueue<>
-        (Comparator.comparingInt(n -> n.getFScore(heuristic)));
-        HashSet<GameState> closedList = new HashSet<>();
-        HashSet<GameState> openStates = new HashSet<>();
-
-        Node initialNode = new Node(null, initialState, null, 0, 0);
-        openList.add(initialNode);
-        openStates.add(initialState);
-
-        long startTime = System.currentTimeMillis();
-        int visitedNodes = 0;
-        int maxNodes = 200000;
-        long maxTime = 60000;
-
-        while (!openList.isEmpty() && visitedNodes < maxNodes) {
-            if (System.currentTimeMillis() - startTime > maxTime) {
-                System.out.println("Search timeout reached (" + maxTime/1000 + " seconds)");
-                break;
-            }
-
-            Node currentNode = openList.poll();
-            openStates.remove(currentNode.getState());
-            visitedNodes++;
-
-            if (visitedNodes % 1000 == 0) {
-                System.out.println("Visited nodes: " + visitedNodes + ", Open list size: " + openList.size() + ", Current depth: " + currentNode.getDepth() + ", F-score: " + currentNode.getFScore(heuristic) + ", H-score: " + heuristic.calculate(currentNode.getState()));
-            }
-
-            if (closedList.contains(currentNode.getState())) {
-                continue;
-            }
-
-            closedList.add(currentNode.getState());
-            if (isGoalState(currentNode.getState())) {
-                System.out.println("Solution Found!");
-                System.out.println("Nodes visited: " + visitedNodes);
-                System.out.println("Time taken: " + (System.currentTimeMillis() - startTime) + " ms");
-                return reconstructPath(currentNode);
-            }
-
-            List<Node> allSuccessors = new ArrayList<>();
-            allSuccessors.addAll(getHomeCellMoves(currentNode));
-            allSuccessors.addAll(getOtherMoves(currentNode));
-
-            for (Node successor : allSuccessors) {
-                if (successor.getDepth() > MAX_SEARCH_DEPTH) {
-                    continue;
-                }
-                GameState successorState = successor.getState();
-                if (!closedList.contains(successorState) && !openStates.contains(successorState)) {
-                    openList.add(successor);
-                    openStates.add(successorState);
-                }
-            }
-        }
-        System.out.println("No solution found.");
-        System.out.println("Nodes visited: " + visitedNodes);
-        System.out.println("Time taken: " + (System.currentTimeMillis() - startTime) + " ms");
-        return null;
+    public AStar(SolverConfig config) {
+        this.heuristic = config.getHeuristic();
+        this.config = config;
     }
 
-    private boolean isGoalState(GameState state) {
-        int cardsInHomeCells = 0;
-        for (Stack<Card> homePile : state.getHomeCells()) {
-            cardsInHomeCells += homePile.size();
-        }
-        return cardsInHomeCells == 52;
+    @Override
+    public SearchResult search(CompactState initialState, CancellationToken cancellation) {
+        return start(initialState, cancellation).resume(Long.MAX_VALUE);
     }
 
-    private List<Node> getHomeCellMoves(Node currentNode) {
-        List<Node> successors = new ArrayList<>();
-        GameState currentState = currentNode.getState();
-
-        for (int fromPile = 0; fromPile < 8; fromPile++) {
-            if (!currentState.getTableauPiles().get(fromPile).isEmpty() && Rules.canMoveTableauToHomeCell(currentState, fromPile)) {
-                GameState newState = currentState.deepCopy();
-                Card cardToMove = newState.getTableauPiles().get(fromPile).pop();
-                addCardToHomeCell(newState, cardToMove);
-                
-                List<Card> autoMovedCards = performAutocompleteMoves(newState);
-                
-                String notation = String.format("%dh", fromPile + 1);
-                String description = String.format("Move %s from Tableau %d to Home", cardToMove, fromPile + 1);
-                SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                
-                successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
-            }
+    @Override
+    public ResumableSearch start(CompactState initialState, CancellationToken cancellation) {
+        String problem = Solvability.findStructuralProblem(initialState);
+        if (problem != null) {
+            log("Deal rejected as unsolvable: " + problem);
+            SearchResult rejected = new SearchResult(null, SearchResult.StopReason.UNSOLVABLE, 0, 0, new SearchMetrics());
+            return expansions -> rejected;
         }
 
-        for (int fromFreeCell = 0; fromFreeCell < 4; fromFreeCell++) {
-            if (currentState.getFreeCells().get(fromFreeCell) != null) {
-                if (Rules.canMoveFreeCellToHomeCell(currentState, fromFreeCell)) {
-                    GameState newState = currentState.deepCopy();
-                    Card cardToMove = newState.getFreeCells().set(fromFreeCell, null);
-                    addCardToHomeCell(newState, cardToMove);
-                    List<Card> autoMovedCards = performAutocompleteMoves(newState);
-
-                    String notation = String.format("%dh", fromFreeCell + 1);
-                    String description = String.format("Move %s from FreeCell %c to Home", cardToMove, getFreeCellChar(fromFreeCell));
-                    SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                    
-                    successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
-                }
+        if (config.isOffHeapClosedSet()) {
+            return new Search(initialState, config.createClosedSet(), new HashMap<>(), cancellation);
+        }
+        synchronized (this) {
+            if (!reusableStructuresInUse) {
+                reusableStructuresInUse = true;
+                return new Search(initialState, closedStates, openNodes, cancellation);
             }
         }
-        return successors;
+        return new Search(initialState, new HeapStateSet(), new HashMap<>(), cancellation);
     }
 
-    private List<Node> getOtherMoves(Node currentNode) {
-        List<Node> successors = new ArrayList<>();
-        GameState currentState = currentNode.getState();
+    private synchronized void releaseReusableStructures() {
+        closedStates.clear();
+        openNodes.clear();
+        reusableStructuresInUse = false;
+    }
 
-        for (int fromFreeCell = 0; fromFreeCell < 4; fromFreeCell++) {
-            if (currentState.getFreeCells().get(fromFreeCell) != null) {
-                for (int toPile = 0; toPile < 8; toPile++) {
-                    if (Rules.canMoveFreeCellToTableau(currentState, fromFreeCell, toPile)) {
-                        GameState newState = currentState.deepCopy();
-                        Card cardToMove = newState.getFreeCells().set(fromFreeCell, null);
-                        newState.getTableauPiles().get(toPile).push(cardToMove);
-                        List<Card> autoMovedCards = performAutocompleteMoves(newState);
+    private class Search implements ResumableSearch {
+
+        private final StateSet closedList;
+        private final HashMap<Long, Node> openNodes;
+        private final CancellationToken cancellation;
+        private final OpenList openList = config.createOpenList();
+        private final MetricsSink sink = config.getMetricsSink();
+        private final boolean detailed = sink.isEnabled();
+        private final SearchMetrics metrics = new SearchMetrics();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        private final int[] autoMoves = new int[CompactState.DECK_SIZE];
+        private final SearchBudget budget = config.getBudget();
+        private final long startTime = System.nanoTime();
+        private final long deadline = budget.deadlineNanos(startTime);
+        private final long maxNodes = budget.getMaxNodes();
+        private final int maxDepth = budget.getMaxDepth();
+        private final double weight = config.getHeuristicWeight();
+        private long nextReport = sink.getReportInterval();
+        private long nodeSequence;
+        private long visitedNodes;
+        private SearchResult.StopReason stopReason = SearchResult.StopReason.EXHAUSTED;
+        private SearchResult result;
+        private boolean released;
+
+        private Search(CompactState initialState, StateSet closedList, HashMap<Long, Node> openNodes, CancellationToken cancellation) {
+            this.closedList = closedList;
+            this.openNodes = openNodes;
+            this.cancellation = cancellation;
+            Node initialNode = new Node(null, initialState, 0, 0, heuristic.calculate(initialState), nodeSequence++);
+            openList.add(initialNode);
+            openNodes.put(initialNode.getStateKey(), initialNode);
+        }
 
-                        String notation = String.format("%c%d", getFreeCellChar(fromFreeCell), toPile + 1);
-                        String description = String.format("Move %s from FreeCell %c to Tableau %d", cardToMove, getFreeCellChar(fromFreeCell), toPile + 1);
-                        SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                        
-                        successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
-                    }
+        @Override
+        public SearchResult resume(long expansions) {
+            if (result == null) {
+                try {
+                    result = advance(visitedNodes + Math.min(expansions, maxNodes - visitedNodes));
+                } catch (RuntimeException | Error e) {
+                    release();
+                    throw e;
                 }
             }
+            return result;
         }
 
-        for (int fromPile = 0; fromPile < 8; fromPile++) {
-            if (!currentState.getTableauPiles().get(fromPile).isEmpty()) {
-                for (int toPile = 0; toPile < 8; toPile++) {
-                    if (fromPile == toPile) continue;
-
-                    if (Rules.canMoveTableauToTableau(currentState, fromPile, toPile)) {
-                        GameState newState = currentState.deepCopy();
-                        Card cardToMove = newState.getTableauPiles().get(fromPile).pop();
-                        newState.getTableauPiles().get(toPile).push(cardToMove);
-                        List<Card> autoMovedCards = performAutocompleteMoves(newState);
+        @Override
+        public void abandon() {
+            release();
+        }
 
-                        String notation = String.format("%d%d", fromPile + 1, toPile + 1);
-                        String description = String.format("Move %s from Tableau %d to Tableau %d", cardToMove, fromPile + 1, toPile + 1);
-                        SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                        
-                        successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
+        private SearchResult advance(long sliceEnd) {
+            while (!openList.isEmpty()) {
+                if (visitedNodes >= maxNodes) {
+                    stopReason = SearchResult.StopReason.NODE_LIMIT;
+                    break;
+                }
+                if (visitedNodes % SearchBudget.CHECK_INTERVAL == 0) {
+                    SearchResult.StopReason limit = budget.checkLimits(deadline, cancellation);
+                    if (limit != null) {
+                        stopReason = limit;
+                        break;
                     }
+                }
+                if (visitedNodes >= sliceEnd) {
+                    return null;
+                }
 
-                    int actualMaxSequenceToMove = Rules.getMaxMovableCards(currentState);
-                    Stack<Card> sourcePile = currentState.getTableauPiles().get(fromPile);
-                    for (int numCards = Math.min(actualMaxSequenceToMove, sourcePile.size()); numCards >= 2; numCards--) {
-                        if (Rules.canMoveMultipleTableauCards(currentState, fromPile, toPile, numCards)) {
-                            GameState newState = currentState.deepCopy();
-                            Stack<Card> newSourcePile = newState.getTableauPiles().get(fromPile);
-                            Stack<Card> newDestPile = newState.getTableauPiles().get(toPile);
-
-                            List<Card> cardsToMove = new ArrayList<>();
-                            for (int i = 0; i < numCards; i++) {
-                                cardsToMove.add(0, newSourcePile.pop());
-                            }
-                            Card cardToMove = cardsToMove.get(0);
-                            Card lastCard = cardsToMove.get(cardsToMove.size() - 1);
-                            for (Card card : cardsToMove) {
-                                newDestPile.push(card);
-                            }
-                            List<Card> autoMovedCards = performAutocompleteMoves(newState);
-
-                            String notation = String.format("%d%d", fromPile + 1, toPile + 1);
-                            String description = String.format("Move %s-%s from Tableau %d to Tableau %d", cardToMove, lastCard, fromPile + 1, toPile + 1);
-                            SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                            
-                            successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
-                            break;
-                        }
+                Node currentNode = openList.poll();
+                openNodes.remove(currentNode.getStateKey(), currentNode);
+                visitedNodes++;
+
+                metrics.recordExpansion();
+                if (detailed) {
+                    metrics.recordScores(currentNode.getFScore(), currentNode.getHeuristicScore(), currentNode.getDepth());
+                    metrics.recordOpenListSize(openList.size());
+                    if (visitedNodes == nextReport) {
+                        sink.onProgress(metrics);
+                        nextReport += sink.getReportInterval();
                     }
                 }
-            }
-        }
 
-        for (int fromPile = 0; fromPile < 8; fromPile++) {
-            if (!currentState.getTableauPiles().get(fromPile).isEmpty()) {
-                for (int toFreeCell = 0; toFreeCell < 4; toFreeCell++) {
-                    if (Rules.canMoveTableauToFreeCell(currentState, fromPile, toFreeCell)) {
-                        GameState newState = currentState.deepCopy();
-                        Card cardToMove = newState.getTableauPiles().get(fromPile).pop();
-                        newState.getFreeCells().set(toFreeCell, cardToMove);
-
-                        List<Card> autoMovedCards = performAutocompleteMoves(newState);
+                CompactState currentState = MoveGenerator.materialize(currentNode);
+                if (closedList.contains(currentState)) {
+                    metrics.recordClosedDuplicate();
+                    continue;
+                }
 
-                        String notation = String.format("%d%c", fromPile + 1, getFreeCellChar(toFreeCell));
-                        String description = String.format("Move %s from Tableau %d to FreeCell %c", cardToMove, fromPile + 1, getFreeCellChar(toFreeCell));
-                        SolutionStep step = new SolutionStep(notation, description, autoMovedCards);
-                        
-                        successors.add(new Node(currentNode, newState, step, currentNode.getDepth() + 1, currentNode.getPathCost() + 1));
-                        break;
-                    }
+                try {
+                    closedList.add(currentState);
+                } catch (IllegalStateException e) {
+                    log("Closed set capacity exhausted: " + e.getMessage());
+                    stopReason = SearchResult.StopReason.MEMORY_LIMIT;
+                    break;
+                }
+                if (currentState.isSolved()) {
+                    long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+                    log("Solution Found!");
+                    log("Nodes visited: " + visitedNodes);
+                    log("Time taken: " + elapsed + " ms");
+                    return finish(new SearchResult(MoveGenerator.reconstructPath(currentNode), SearchResult.StopReason.SOLVED, visitedNodes, elapsed, metrics));
+                }
+                if (config.isOffHeapClosedSet() && currentNode.getDepth() % STATE_CHECKPOINT_INTERVAL != 0) {
+                    currentNode.setState(null);
                 }
-            }
-        }
-        return successors;
-    }
 
-    private List<Card> performAutocompleteMoves(GameState state) {
-        List<Card> movedCards = new ArrayList<>();
-        boolean moveMadeInThisPassTotal;
-        final String[] suitOrder = {"Clubs", "Diamonds", "Hearts", "Spades"}; 
+                if (currentNode.getDepth() + 1 > maxDepth) {
+                    stopReason = SearchResult.StopReason.DEPTH_LIMIT;
+                    continue;
+                }
 
-        do {
-            moveMadeInThisPassTotal = false;
-            for (int i = 0; i < state.getTableauPiles().size(); i++) {
-                while (!state.getTableauPiles().get(i).isEmpty()) {
-                    Card card = state.getTableauPiles().get(i).peek();
-                    if (Rules.canMoveTableauToHomeCell(state, i) && isSafeToAutocomplete(state, card, suitOrder)) {
-                        state.getTableauPiles().get(i).pop();
-                        addCardToHomeCell(state, card);
-                        movedCards.add(card);
-                        moveMadeInThisPassTotal = true;
+                long timer = detailed ? System.nanoTime() : 0;
+                int moveCount = MoveGenerator.generateMoves(currentState, moves);
+                CompactState board = currentState.copy();
+                for (int i = 0; i < moveCount; i++) {
+                    int move = moves[i];
+                    Move.apply(board, move);
+                    int autoMoveCount = MoveGenerator.performAutocompleteMoves(board, autoMoves);
+
+                    long successorKey = board.getZobristKey();
+                    if (detailed) {
+                        timer = metrics.lapMoveGeneration(timer);
+                    }
+                    if (Solvability.isDeadEnd(board)) {
+                        metrics.recordDeadEnd();
+                    } else if (closedList.contains(board)) {
+                        metrics.recordClosedDuplicate();
+                    } else if (isOpen(successorKey, board)) {
+                        metrics.recordOpenDuplicate();
                     } else {
-                        break; 
+                        if (detailed) {
+                            timer = metrics.lapHashing(timer);
+                        }
+                        int heuristicScore = heuristic.calculate(board);
+                        if (detailed) {
+                            timer = metrics.lapHeuristic(timer);
+                        }
+                        metrics.recordGenerated();
+                        Node successor = new Node(currentNode, move, successorKey, currentNode.getDepth() + 1, currentNode.getPathCost() + 1, heuristicScore, Node.weightedFScore(currentNode.getPathCost() + 1, heuristicScore, weight), nodeSequence++);
+                        openList.add(successor);
+                        openNodes.putIfAbsent(successorKey, successor);
+                    }
+                    if (detailed) {
+                        timer = metrics.lapHashing(timer);
+                    }
+
+                    while (autoMoveCount > 0) {
+                        Move.undo(board, autoMoves[--autoMoveCount]);
                     }
+                    Move.undo(board, move);
                 }
-            }
-            for (int i = 0; i < state.getFreeCells().size(); i++) {
-                Card card = state.getFreeCells().get(i);
-                if (card != null && Rules.canMoveFreeCellToHomeCell(state, i) && isSafeToAutocomplete(state, card, suitOrder)) {
-                    state.getFreeCells().set(i, null);
-                    addCardToHomeCell(state, card);
-                    movedCards.add(card);
-                    moveMadeInThisPassTotal = true;
+                if (detailed) {
+                    metrics.lapMoveGeneration(timer);
                 }
             }
-        } while (moveMadeInThisPassTotal);
-        return movedCards;
-    }
-    
-    private boolean isSafeToAutocomplete(GameState state, Card cardToMove, String[] suitOrder) {
-        int rankVal = Rules.getRankValue(cardToMove.getRank());
-
-        if (rankVal <= 2) return true;
+            long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+            log("No solution found (" + stopReason + ").");
+            log("Nodes visited: " + visitedNodes);
+            log("Time taken: " + elapsed + " ms");
+            return finish(new SearchResult(null, stopReason, visitedNodes, elapsed, metrics));
+        }
 
-        int requiredRankOnOpposite = rankVal - 2;
-        boolean cardIsRed = Rules.isRed(cardToMove);
-        Map<String, Integer> currentHomeRanks = new HashMap<>();
-        for (int i = 0; i < suitOrder.length; i++) {
-            if (state.getHomeCells().get(i).isEmpty()) {
-                currentHomeRanks.put(suitOrder[i], 0);
-            } 
-            else {
-                currentHomeRanks.put(suitOrder[i], Rules.getRankValue(state.getHomeCells().get(i).peek().getRank()));
-            }
+        private boolean isOpen(long stateKey, CompactState state) {
+            Node open = openNodes.get(stateKey);
+            return open != null && MoveGenerator.materialize(open).equals(state);
         }
 
-        for (String suit : suitOrder) {
-            boolean suitToCheckIsRed = Rules.isRed(new Card(suit, "Ace"));
-            if (cardIsRed != suitToCheckIsRed) {
-                if (currentHomeRanks.get(suit) < requiredRankOnOpposite) {
-                    return false;
-                }
+        private SearchResult finish(SearchResult result) {
+            release();
+            result.getMetrics().finish();
+            if (sink.isEnabled()) {
+                sink.onFinish(result.getMetrics());
             }
+            return result;
         }
-        return true;
-    }
 
-    private void addCardToHomeCell(GameState state, Card card) {
-        for (Stack<Card> homePile : state.getHomeCells()) {
-            if (homePile.isEmpty()) {
-                if (card.getRank().equals("Ace")) {
-                    homePile.push(card);
-                    return;
-                }
-            } 
-            else {
-                if (homePile.peek().getSuit().equals(card.getSuit())) {
-                    homePile.push(card);
-                    return;
-                }
+        private void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (closedList == closedStates) {
+                releaseReusableStructures();
+            } else {
+                closedList.close();
             }
         }
     }
 
-    private List<SolutionStep> reconstructPath(Node goalNode) {
-        List<SolutionStep> path = new ArrayList<>();
-        Node currentNode = goalNode;
-        while (currentNode != null && currentNode.getStep() != null) {
-            path.add(currentNode.getStep());
-            currentNode = currentNode.getParent();
+    private void log(String message) {
+        if (config.isVerbose()) {
+            System.out.println(message);
         }
-        Collections.reverse(path);
-        return path;
-    }
-
-    private char getFreeCellChar(int index) {
-        return (char) ('a' + index);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package search;
+
+import models.CompactState;
+
+public class AdmissibleHeuristic implements HeuristicFunction {
+
+    @Override
+    public int calculate(CompactState state) {
+        if (state.isSolved()) {
+            return 0;
+        }
+
+        int blockedRuns = 0;
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            blockedRuns += countBlockedRuns(state, pile);
+        }
+        return Math.max(1, blockedRuns);
+    }
+
+    private int countBlockedRuns(CompactState state, int pile) {
+        int lowestRanks = 0xFFFFFFFF;
+        int runs = 0;
+        boolean runCounted = false;
+        for (int i = 0; i < state.pileSize(pile); i++) {
+            int card = state.cardAt(pile, i);
+            int suit = CompactState.suitOf(card);
+            int rank = CompactState.rankOf(card);
+
+            if (i > 0) {
+                int below = state.cardAt(pile, i - 1);
+                if (CompactState.isRed(card) == CompactState.isRed(below) || rank != CompactState.rankOf(below) - 1) {
+                    runCounted = false;
+                }
+            }
+
+            int lowestRank = lowestRanks >>> (suit * 8) & 0xFF;
+            if (rank > lowestRank && !runCounted) {
+                runs++;
+                runCounted = true;
+            }
+            if (rank < lowestRank) {
+                lowestRanks = lowestRanks & ~(0xFF << (suit * 8)) | rank << (suit * 8);
+            }
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,260 @@
+package search;
+
+import metrics.MetricsSink;
+import metrics.SearchMetrics;
+import models.CompactState;
+import models.Move;
+import rules.Solvability;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+public class AnytimeAStar implements Solver {
+
+    private final HeuristicFunction heuristic;
+    private final SolverConfig config;
+
+    public AnytimeAStar() {
+        this(new SolverConfig());
+    }
+
+    public AnytimeAStar(SolverConfig config) {
+        this.heuristic = config.getHeuristic();
+        this.config = config;
+    }
+
+    @Override
+    public SearchResult search(CompactState initialState, CancellationToken cancellation) {
+        return start(initialState, cancellation).resume(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ResumableSearch start(CompactState initialState, CancellationToken cancellation) {
+        String problem = Solvability.findStructuralProblem(initialState);
+        if (problem != null) {
+            log("Deal rejected as unsolvable: " + problem);
+            SearchResult rejected = new SearchResult(null, SearchResult.StopReason.UNSOLVABLE, 0, 0, new SearchMetrics());
+            return expansions -> rejected;
+        }
+        return new Search(initialState, cancellation);
+    }
+
+    private class Search implements ResumableSearch {
+
+        private final CancellationToken cancellation;
+        private final MetricsSink sink = config.getMetricsSink();
+        private final boolean detailed = sink.isEnabled();
+        private final SearchMetrics metrics = new SearchMetrics();
+        private final SearchBudget budget = config.getBudget();
+        private final long startTime = System.nanoTime();
+        private final long deadline = budget.deadlineNanos(startTime);
+        private final long maxNodes = budget.getMaxNodes();
+        private final int maxDepth = budget.getMaxDepth();
+        private final OpenList openList = config.createOpenList();
+        private final HashMap<CompactState, Integer> bestCosts = new HashMap<>();
+        private final HashSet<CompactState> expandedStates = new HashSet<>();
+        private final List<Node> inconsistentNodes = new ArrayList<>();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+        private final int[] autoMoves = new int[CompactState.DECK_SIZE];
+        private double weight = config.getInitialWeight();
+        private long nextReport = sink.getReportInterval();
+        private long nodeSequence;
+        private Node incumbent;
+        private int incumbentCost;
+        private long visitedNodes;
+        private boolean depthLimited;
+        private SearchResult result;
+
+        private Search(CompactState initialState, CancellationToken cancellation) {
+            this.cancellation = cancellation;
+            Node initialNode = new Node(null, initialState, 0, 0, heuristic.calculate(initialState), nodeSequence++);
+            openList.add(initialNode);
+            bestCosts.put(initialState, 0);
+            incumbent = initialState.isSolved() ? initialNode : null;
+            incumbentCost = incumbent != null ? 0 : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public SearchResult resume(long expansions) {
+            if (result == null) {
+                result = advance(visitedNodes + Math.min(expansions, maxNodes - visitedNodes));
+            }
+            return result;
+        }
+
+        private SearchResult advance(long sliceEnd) {
+            SearchResult.StopReason stopReason = null;
+            while (stopReason == null) {
+                if (openList.isEmpty()) {
+                    if (inconsistentNodes.isEmpty()) {
+                        if (incumbent != null) {
+                            stopReason = SearchResult.StopReason.SOLVED;
+                        } else {
+                            stopReason = depthLimited ? SearchResult.StopReason.DEPTH_LIMIT : SearchResult.StopReason.EXHAUSTED;
+                        }
+                        break;
+                    }
+                    nodeSequence = reopen(openList, inconsistentNodes, bestCosts, expandedStates, weight, incumbentCost, nodeSequence);
+                    continue;
+                }
+                if (visitedNodes >= maxNodes) {
+                    stopReason = SearchResult.StopReason.NODE_LIMIT;
+                    break;
+                }
+                if (visitedNodes % SearchBudget.CHECK_INTERVAL == 0) {
+                    stopReason = budget.checkLimits(deadline, cancellation);
+                    if (stopReason != null) {
+                        break;
+                    }
+                }
+                if (visitedNodes >= sliceEnd) {
+                    return null;
+                }
+
+                Node currentNode = openList.poll();
+                if (weight == 1.0 && currentNode.getFScore() >= incumbentCost && inconsistentBound() >= incumbentCost) {
+                    stopReason = SearchResult.StopReason.SOLVED;
+                    break;
+                }
+                CompactState currentState = MoveGenerator.materialize(currentNode);
+                if (currentNode.getPathCost() > bestCosts.get(currentState) || !expandedStates.add(currentState)) {
+                    metrics.recordClosedDuplicate();
+                    continue;
+                }
+                if (!canImprove(currentNode.getPathCost(), currentNode.getHeuristicScore(), incumbentCost)) {
+                    continue;
+                }
+                if (currentNode.getDepth() + 1 > maxDepth) {
+                    depthLimited = true;
+                    continue;
+                }
+
+                visitedNodes++;
+                metrics.recordExpansion();
+                if (detailed) {
+                    metrics.recordScores(currentNode.getFScore(), currentNode.getHeuristicScore(), currentNode.getDepth());
+                    metrics.recordOpenListSize(openList.size());
+                    if (visitedNodes == nextReport) {
+                        sink.onProgress(metrics);
+                        nextReport += sink.getReportInterval();
+                    }
+                }
+
+                int successorCost = currentNode.getPathCost() + 1;
+                Node improved = null;
+
+                int moveCount = MoveGenerator.generateMoves(currentState, moves);
+                CompactState board = currentState.copy();
+                for (int i = 0; i < moveCount; i++) {
+                    int move = moves[i];
+                    Move.apply(board, move);
+                    int autoMoveCount = MoveGenerator.performAutocompleteMoves(board, autoMoves);
+
+                    long successorKey = board.getZobristKey();
+                    Integer knownCost = bestCosts.get(board);
+                    if (Solvability.isDeadEnd(board)) {
+                        metrics.recordDeadEnd();
+                    } else if (knownCost != null && knownCost <= successorCost) {
+                        if (expandedStates.contains(board)) {
+                            metrics.recordClosedDuplicate();
+                        } else {
+                            metrics.recordOpenDuplicate();
+                        }
+                    } else {
+                        int heuristicScore = heuristic.calculate(board);
+                        if (board.isSolved() || canImprove(successorCost, heuristicScore, incumbentCost)) {
+                            CompactState successorState = board.copy();
+                            bestCosts.put(successorState, successorCost);
+                            Node successor = new Node(currentNode, move, successorKey, currentNode.getDepth() + 1, successorCost, heuristicScore,
+                                Node.weightedFScore(successorCost, heuristicScore, weight), nodeSequence++);
+                            successor.setState(successorState);
+                            metrics.recordGenerated();
+                            if (board.isSolved()) {
+                                improved = successor;
+                            } else if (expandedStates.contains(board)) {
+                                inconsistentNodes.add(successor);
+                            } else {
+                                openList.add(successor);
+                            }
+                        }
+                    }
+
+                    while (autoMoveCount > 0) {
+                        Move.undo(board, autoMoves[--autoMoveCount]);
+                    }
+                    Move.undo(board, move);
+                }
+
+                if (improved != null) {
+                    incumbent = improved;
+                    incumbentCost = improved.getPathCost();
+                    long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+                    log("Solution with " + incumbentCost + " moves found at weight " + weight + " after " + visitedNodes + " nodes (" + elapsed + " ms)");
+                    SolutionListener listener = config.getSolutionListener();
+                    if (listener != null) {
+                        listener.onSolution(new SearchResult(MoveGenerator.reconstructPath(incumbent), SearchResult.StopReason.SOLVED, visitedNodes, elapsed, metrics), weight);
+                    }
+                    weight = Math.max(1.0, weight - config.getWeightDecrement());
+                    nodeSequence = reopen(openList, inconsistentNodes, bestCosts, expandedStates, weight, incumbentCost, nodeSequence);
+                }
+            }
+
+            long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+            SearchResult.StopReason limitReason = null;
+            if (incumbent != null && stopReason != SearchResult.StopReason.SOLVED) {
+                limitReason = stopReason;
+                stopReason = SearchResult.StopReason.SOLVED;
+            }
+            if (incumbent != null) {
+                log("Best solution: " + incumbentCost + " moves (" + (limitReason != null ? "stopped by " + limitReason : "proven optimal at weight 1") + ")");
+            } else {
+                log("No solution found (" + stopReason + ").");
+            }
+            log("Nodes visited: " + visitedNodes);
+            log("Time taken: " + elapsed + " ms");
+
+            metrics.finish();
+            if (detailed) {
+                sink.onFinish(metrics);
+            }
+            return new SearchResult(incumbent != null ? MoveGenerator.reconstructPath(incumbent) : null, stopReason, limitReason, visitedNodes, elapsed, metrics);
+        }
+
+        private int inconsistentBound() {
+            int bound = Integer.MAX_VALUE;
+            for (Node node : inconsistentNodes) {
+                bound = Math.min(bound, Node.weightedFScore(node.getPathCost(), node.getHeuristicScore(), 1.0));
+            }
+            return bound;
+        }
+    }
+
+    private long reopen(OpenList openList, List<Node> inconsistentNodes, HashMap<CompactState, Integer> bestCosts, HashSet<CompactState> expandedStates,
+                        double weight, int incumbentCost, long nodeSequence) {
+        List<Node> pending = new ArrayList<>(inconsistentNodes);
+        inconsistentNodes.clear();
+        while (!openList.isEmpty()) {
+            pending.add(openList.poll());
+        }
+        expandedStates.clear();
+
+        for (Node node : pending) {
+            if (node.getPathCost() == bestCosts.get(MoveGenerator.materialize(node)) && canImprove(node.getPathCost(), node.getHeuristicScore(), incumbentCost)) {
+                openList.add(node.withFScore(Node.weightedFScore(node.getPathCost(), node.getHeuristicScore(), weight), nodeSequence++));
+            }
+        }
+        return nodeSequence;
+    }
+
+    private static boolean canImprove(int pathCost, int heuristicScore, int incumbentCost) {
+        return Node.weightedFScore(pathCost, Math.max(heuristicScore, 1), 1.0) < incumbentCost;
+    }
+
+    private void log(String message) {
+        if (config.isVerbose()) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package search;
+
+import models.CompactState;
+import utils.BinaryBoardFormat;
+import utils.BoardLoader;
+import utils.DealRange;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchSolver {
+
+    public static class Deal {
+        private final String name;
+        private final long id;
+        private final Callable<CompactState> loader;
+
+        public Deal(String name, long id, Callable<CompactState> loader) {
+            this.name = name;
+            this.id = id;
+            this.loader = loader;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public CompactState load() throws Exception {
+            return loader.call();
+        }
+    }
+
+    private static final String DEAL_RANGE_PATTERN = "(#|seed:)?-?\\d+(--?\\d+)?";
+
+    private final SolverConfig config;
+    private final int workers;
+
+    public BatchSolver(SolverConfig config, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        this.config = config.copy();
+        this.workers = workers;
+        this.config.setVerbose(false);
+    }
+
+    public static Iterable<Deal> parseSource(String source) throws IOException {
+        if (source.matches(DEAL_RANGE_PATTERN)) {
+            return fromDealRange(DealRange.parse(source));
+        }
+        Path path = Paths.get(source);
+        if (Files.isDirectory(path)) {
+            return fromDirectory(path);
+        }
+        return source.endsWith(".fcdb") ? fromBinaryFile(path) : fromListFile(path);
+    }
+
+    public static Iterable<Deal> fromDealRange(DealRange range) {
+        DealRange.Generator generator = range.getGenerator();
+        return () -> range.iterator(number -> new Deal(generator.name(number), number, () -> generator.deal(number)));
+    }
+
+    public static Iterable<Deal> fromBinaryFile(Path file) throws IOException {
+        BinaryBoardFormat.DealFile dealFile = BinaryBoardFormat.open(file);
+        return () -> new Iterator<>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < dealFile.size();
+            }
+
+            @Override
+            public Deal next() {
+                if (next >= dealFile.size()) {
+                    throw new NoSuchElementException();
+                }
+                long index = next++;
+                return new Deal(file + ":" + index, index, () -> dealFile.get(index));
+            }
+        };
+    }
+
+    public static List<Deal> fromDirectory(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        List<Deal> deals = new ArrayList<>();
+        for (Path file : files) {
+            deals.add(boardFile(file, deals.size() + 1));
+        }
+        return deals;
+    }
+
+    public static Iterable<Deal> fromListFile(Path listFile) throws IOException {
+        List<Iterable<Deal>> sources = new ArrayList<>();
+        List<String> lines = Files.readAllLines(listFile);
+        for (int line = 0; line < lines.size(); line++) {
+            String entry = lines.get(line).trim();
+            boolean dealEntry = entry.matches(DEAL_RANGE_PATTERN);
+            if (entry.isEmpty() || (entry.startsWith("#") && !dealEntry)) {
+                continue;
+            }
+            if (dealEntry || entry.endsWith(".fcdb")) {
+                sources.add(parseSource(entry));
+            } else {
+                sources.add(Collections.singletonList(boardFile(Paths.get(entry), line + 1)));
+            }
+        }
+        return concat(sources);
+    }
+
+    private static Iterable<Deal> concat(List<Iterable<Deal>> sources) {
+        return () -> new Iterator<>() {
+            private final Iterator<Iterable<Deal>> remaining = sources.iterator();
+            private Iterator<Deal> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && remaining.hasNext()) {
+                    current = remaining.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Deal next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    public static Iterable<CompactState> states(Iterable<Deal> deals) {
+        return () -> {
+            Iterator<Deal> iterator = deals.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public CompactState next() {
+                    Deal deal = iterator.next();
+                    try {
+                        return deal.load();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (Exception e) {
+                        throw new IllegalArgumentException("Cannot load " + deal.getName() + ": " + e.getMessage(), e);
+                    }
+                }
+            };
+        };
+    }
+
+    private static Deal boardFile(Path file, long id) {
+        return new Deal(file.toString(), id, () -> CompactState.fromGameState(BoardLoader.loadFromFile(file.toString())));
+    }
+
+    public int run(Iterable<Deal> deals, Path output) throws IOException, InterruptedException {
+        String fileName = output.getFileName().toString();
+        boolean binary = fileName.endsWith(".fcsr");
+        boolean json = fileName.endsWith(".jsonl");
+        AtomicInteger solved = new AtomicInteger();
+        int total = 0;
+        long startTime = System.currentTimeMillis();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            if (binary) {
+                SolutionRecord.writeHeader(out);
+            } else if (!json) {
+                out.write(("deal,status,moves,nodes,ms" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            Semaphore inFlight = new Semaphore(workers * 2);
+            try {
+                for (Deal deal : deals) {
+                    inFlight.acquire();
+                    total++;
+                    pool.execute(() -> {
+                        try {
+                            SolutionRecord record = solveDeal(deal, solved);
+                            synchronized (out) {
+                                if (binary) {
+                                    record.write(out);
+                                } else {
+                                    out.write((format(deal, record, json) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                                }
+                                out.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } finally {
+                pool.shutdown();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        System.out.println("Solved " + solved.get() + " of " + total + " deals in "
+            + (System.currentTimeMillis() - startTime) + " ms, results written to " + output);
+        return solved.get();
+    }
+
+    private SolutionRecord solveDeal(Deal deal, AtomicInteger solved) {
+        try {
+            CompactState initialState = deal.load();
+            SearchResult result = config.createSolver().search(initialState);
+            int[] moves = new int[0];
+            if (result.isSolved()) {
+                moves = MoveGenerator.findMoves(initialState, result.getSolution());
+                if (moves == null) {
+                    throw new IllegalStateException("Solution does not replay from the initial deal");
+                }
+                solved.incrementAndGet();
+            }
+            return new SolutionRecord(deal.getId(), deal.getName(), result.getStopReason(), result.getNodesVisited(), result.getElapsedMillis(), moves);
+        } catch (Throwable e) {
+            System.err.println("Error solving " + deal.getName() + ": " + e);
+            return new SolutionRecord(deal.getId(), deal.getName(), SearchResult.StopReason.ERROR, 0, 0, new int[0]);
+        }
+    }
+
+    private static String format(Deal deal, SolutionRecord record, boolean json) {
+        String status = record.getStopReason().name().toLowerCase();
+        int moves = record.getMoves().length;
+        long nodes = record.getNodesVisited();
+        long elapsed = record.getElapsedMillis();
+        if (json) {
+            return String.format("{\"deal\":\"%s\",\"status\":\"%s\",\"moves\":%d,\"nodes\":%d,\"ms\":%d}",
+                escapeJson(deal.getName()), status, moves, nodes, elapsed);
+        }
+        return String.format("%s,%s,%d,%d,%d", escapeCsv(deal.getName()), status, moves, nodes, elapsed);
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapeCsv(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,28 @@
+package search;
+
+import java.util.PriorityQueue;
+
+public class BinaryHeapOpenList implements OpenList {
+
+    private final PriorityQueue<Node> queue = new PriorityQueue<>(Node::compareByScore);
+
+    @Override
+    public void add(Node node) {
+        queue.add(node);
+    }
+
+    @Override
+    public Node poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
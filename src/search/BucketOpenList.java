@@ -0,0 +1,97 @@
+package search;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+public class BucketOpenList implements OpenList {
+
+    private static final int INITIAL_BUCKETS = 256;
+    private static final int MAX_BUCKETS = 1 << 20;
+
+    private PriorityQueue<Node>[] buckets = newBuckets(INITIAL_BUCKETS);
+    private int baseScore;
+    private boolean baseSet;
+    private int lowestBucket;
+    private int size;
+
+    @Override
+    public void add(Node node) {
+        int index = bucketIndex(node.getFScore());
+        PriorityQueue<Node> bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new PriorityQueue<>(Node::compareByScore);
+            buckets[index] = bucket;
+        }
+        bucket.add(node);
+
+        if (size == 0 || index < lowestBucket) {
+            lowestBucket = index;
+        }
+        size++;
+    }
+
+    @Override
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (buckets[lowestBucket] == null || buckets[lowestBucket].isEmpty()) {
+            lowestBucket++;
+        }
+
+        size--;
+        return buckets[lowestBucket].poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int bucketIndex(int fScore) {
+        if (!baseSet) {
+            baseScore = fScore - buckets.length / 2;
+            baseSet = true;
+        }
+
+        long index = (long) fScore - baseScore;
+        if (index < 0) {
+            int shift = (int) (grownLength(buckets.length - index, fScore) - buckets.length);
+            growFront(shift);
+            index += shift;
+        } else if (index >= buckets.length) {
+            growBack(grownLength(index + 1, fScore));
+        }
+        return (int) index;
+    }
+
+    private int grownLength(long required, int fScore) {
+        if (required > MAX_BUCKETS) {
+            throw new IllegalArgumentException("F-score outside the bucket open list's range of " + MAX_BUCKETS
+                + " values: " + fScore + "; use the binary_heap open list");
+        }
+        return (int) Math.min(Math.max(required, buckets.length * 2L), MAX_BUCKETS);
+    }
+
+    private void growFront(int shift) {
+        PriorityQueue<Node>[] grown = newBuckets(buckets.length + shift);
+        System.arraycopy(buckets, 0, grown, shift, buckets.length);
+        buckets = grown;
+        baseScore -= shift;
+        lowestBucket += shift;
+    }
+
+    private void growBack(int capacity) {
+        buckets = Arrays.copyOf(buckets, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PriorityQueue<Node>[] newBuckets(int count) {
+        return (PriorityQueue<Node>[]) new PriorityQueue[count];
+    }
+}
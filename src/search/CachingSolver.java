@@ -0,0 +1,63 @@
+package search;
+
+import models.CompactState;
+
+public class CachingSolver implements Solver {
+
+    private final Solver solver;
+    private final SolutionCache cache;
+    private final SolverConfig config;
+
+    public CachingSolver(Solver solver, SolutionCache cache, SolverConfig config) {
+        this.solver = solver;
+        this.cache = cache;
+        this.config = config;
+    }
+
+    @Override
+    public SearchResult search(CompactState initialState, CancellationToken cancellation) {
+        SearchResult cached = cache.lookup(initialState);
+        if (cached != null) {
+            log("Solution replayed from cache: " + cache.describe(initialState));
+            return cached;
+        }
+
+        SearchResult result = solver.search(initialState, cancellation);
+        if (result.isSolved()) {
+            cache.store(initialState, result, config.getAlgorithm().name().toLowerCase());
+        }
+        return result;
+    }
+
+    @Override
+    public ResumableSearch start(CompactState initialState, CancellationToken cancellation) {
+        SearchResult cached = cache.lookup(initialState);
+        if (cached != null) {
+            log("Solution replayed from cache: " + cache.describe(initialState));
+            return expansions -> cached;
+        }
+
+        ResumableSearch search = solver.start(initialState, cancellation);
+        return new ResumableSearch() {
+            @Override
+            public SearchResult resume(long expansions) {
+                SearchResult result = search.resume(expansions);
+                if (result != null && result.isSolved()) {
+                    cache.store(initialState, result, config.getAlgorithm().name().toLowerCase());
+                }
+                return result;
+            }
+
+            @Override
+            public void abandon() {
+                search.abandon();
+            }
+        };
+    }
+
+    private void log(String message) {
+        if (config.isVerbose()) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package search;
+
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,206 @@
+package search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentStateTable {
+
+    public static final int INSERTED = 0;
+    public static final int IMPROVED = 1;
+    public static final int DUPLICATE = 2;
+
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY_REPLACEMENT = 0x9E3779B97F4A7C15L;
+    private static final int SEGMENT_BITS = 6;
+    private static final int MIN_SEGMENT_CAPACITY = 1 << 10;
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 30;
+
+    private static class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicInteger size = new AtomicInteger();
+        private AtomicLongArray keys;
+        private AtomicIntegerArray bestCosts;
+
+        private Segment(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            bestCosts = new AtomicIntegerArray(capacity);
+        }
+    }
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private volatile int maxProbeLength;
+
+    public ConcurrentStateTable(int expectedEntries) {
+        long perSegment = Math.max(MIN_SEGMENT_CAPACITY, (long) Math.max(expectedEntries, 1) * 2 >> SEGMENT_BITS);
+        int capacity = (int) Math.min(MAX_SEGMENT_CAPACITY, Long.highestOneBit(perSegment * 2 - 1));
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    public int insertOrImprove(long stateKey, int pathCost) {
+        long key = stateKey == EMPTY ? ZERO_KEY_REPLACEMENT : stateKey;
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        int result;
+        int capacity;
+        boolean claimed = false;
+        segment.lock.readLock().lock();
+        try {
+            AtomicLongArray keys = segment.keys;
+            capacity = keys.length();
+            int mask = capacity - 1;
+            int index = (int) hash & mask;
+            result = -1;
+            for (int probe = 1; probe <= capacity; probe++) {
+                long current = keys.get(index);
+                if (current == EMPTY) {
+                    if (keys.compareAndSet(index, EMPTY, key)) {
+                        claimed = true;
+                    } else {
+                        current = keys.get(index);
+                    }
+                }
+                if (claimed || current == key) {
+                    recordProbes(probe);
+                    result = lowerCost(segment.bestCosts, index, pathCost, claimed);
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+        if (result < 0) {
+            throw new IllegalStateException("State table segment is full (" + capacity + " entries)");
+        }
+        if (claimed && segment.size.incrementAndGet() > capacity >> 1 && capacity < MAX_SEGMENT_CAPACITY) {
+            grow(segment, capacity);
+        }
+        return result;
+    }
+
+    public boolean containsAtOrBelow(long stateKey, int pathCost) {
+        long key = stateKey == EMPTY ? ZERO_KEY_REPLACEMENT : stateKey;
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        segment.lock.readLock().lock();
+        try {
+            AtomicLongArray keys = segment.keys;
+            int mask = keys.length() - 1;
+            int index = (int) hash & mask;
+            for (int probe = 1; probe <= keys.length(); probe++) {
+                long current = keys.get(index);
+                if (current == EMPTY) {
+                    return false;
+                }
+                if (current == key) {
+                    int best = segment.bestCosts.get(index);
+                    return best != 0 && best - 1 <= pathCost;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    private static int lowerCost(AtomicIntegerArray bestCosts, int index, int pathCost, boolean claimed) {
+        int encoded = pathCost + 1;
+        int current = bestCosts.get(index);
+        while (current == 0 || encoded < current) {
+            if (bestCosts.compareAndSet(index, current, encoded)) {
+                return claimed || current == 0 ? INSERTED : IMPROVED;
+            }
+            current = bestCosts.get(index);
+        }
+        return DUPLICATE;
+    }
+
+    private static void grow(Segment segment, int observedCapacity) {
+        segment.lock.writeLock().lock();
+        try {
+            AtomicLongArray oldKeys = segment.keys;
+            if (oldKeys.length() != observedCapacity) {
+                return;
+            }
+            AtomicIntegerArray oldCosts = segment.bestCosts;
+            int capacity = observedCapacity << 1;
+            int mask = capacity - 1;
+            AtomicLongArray keys = new AtomicLongArray(capacity);
+            AtomicIntegerArray bestCosts = new AtomicIntegerArray(capacity);
+            for (int i = 0; i < oldKeys.length(); i++) {
+                long key = oldKeys.get(i);
+                if (key != EMPTY) {
+                    int index = (int) mix(key) & mask;
+                    while (keys.get(index) != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+                    keys.set(index, key);
+                    bestCosts.set(index, oldCosts.get(i));
+                }
+            }
+            segment.keys = keys;
+            segment.bestCosts = bestCosts;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    private static long mix(long key) {
+        long mixed = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    private void recordProbes(int probeLength) {
+        operations.increment();
+        probes.add(probeLength);
+        if (probeLength > maxProbeLength) {
+            synchronized (this) {
+                if (probeLength > maxProbeLength) {
+                    maxProbeLength = probeLength;
+                }
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size.get();
+        }
+        return size;
+    }
+
+    public long capacity() {
+        long capacity = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                capacity += segment.keys.length();
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return capacity;
+    }
+
+    public double getLoadFactor() {
+        return (double) size() / capacity();
+    }
+
+    public double getAverageProbeLength() {
+        long ops = operations.sum();
+        return ops == 0 ? 0.0 : (double) probes.sum() / ops;
+    }
+
+    public int getMaxProbeLength() {
+        return maxProbeLength;
+    }
+}
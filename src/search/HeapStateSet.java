@@ -0,0 +1,29 @@
+package search;
+
+import models.CompactState;
+
+import java.util.HashSet;
+
+public class HeapStateSet implements StateSet {
+
+    private final HashSet<CompactState> states = new HashSet<>();
+
+    @Override
+    public boolean add(CompactState state) {
+        return states.add(state);
+    }
+
+    @Override
+    public boolean contains(CompactState state) {
+        return states.contains(state);
+    }
+
+    @Override
+    public long size() {
+        return states.size();
+    }
+
+    public void clear() {
+        states.clear();
+    }
+}
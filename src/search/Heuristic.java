@@ -1,21 +1,24 @@
 package search;
 
 import models.Card;
+import models.CompactState;
 import models.GameState;
-import rules.Rules;
-import java.util.*;
 
-public class Heuristic {
+import java.util.Stack;
 
-    private static final int REWARD_PER_CARD_IN_HOME = -25;
+public class Heuristic implements HeuristicFunction {
 
-    private static final int REWARD_PER_SEQUENCE_CARD = -10;
+    static final int REWARD_PER_CARD_IN_HOME = -25;
 
-    private static final int REWARD_PER_EMPTY_TABLEAU = -5;
+    static final int REWARD_PER_SEQUENCE_CARD = -10;
 
-    private static final int PENALTY_PER_USED_FREECELL = 2;
+    static final int REWARD_PER_EMPTY_TABLEAU = -5;
 
-    private static final int PENALTY_PER_BLOCKED_CARD = 1;
+    static final int PENALTY_PER_USED_FREECELL = 2;
+
+    static final int PENALTY_PER_BLOCKED_CARD = 1;
+
+    private static final boolean VERIFY_INCREMENTAL = Boolean.getBoolean("freecell.verifyHeuristic");
 
     public int calculate(GameState state) {
         int cardsInHome = 0;
@@ -39,16 +42,16 @@ public class Heuristic {
         for (Stack<Card> tableauPile : state.getTableauPiles()) {
             if (tableauPile.size() <= 1) continue;
 
-            List<Card> cards = new ArrayList<>(tableauPile);
-            Collections.reverse(cards);
-
             int sequenceLength = 1;
-            for (int i = 1; i < cards.size(); i++) {
-                Card higherCard = cards.get(i - 1);
-                Card lowerCard = cards.get(i);
+            for (int i = tableauPile.size() - 2; i >= 0; i--) {
+                int higherCard = tableauPile.get(i + 1).getIndex();
+                int lowerCard = tableauPile.get(i).getIndex();
+                if (higherCard < 0 || lowerCard < 0) {
+                    break;
+                }
 
-                boolean isCorrectOrder = Rules.getRankValue(lowerCard.getRank()) == Rules.getRankValue(higherCard.getRank()) - 1;
-                boolean isAlternatingColor = (Rules.isRed(lowerCard) != Rules.isRed(higherCard));
+                boolean isCorrectOrder = CompactState.rankOf(lowerCard) == CompactState.rankOf(higherCard) - 1;
+                boolean isAlternatingColor = CompactState.isRed(lowerCard) != CompactState.isRed(higherCard);
 
                 if (isCorrectOrder && isAlternatingColor) {
                     sequenceLength++;
@@ -56,7 +59,7 @@ public class Heuristic {
                     break;
                 }
             }
-            
+
             if (sequenceLength > 1) {
                 totalCardsInOrderedSequences += sequenceLength;
             }
@@ -66,15 +69,10 @@ public class Heuristic {
 
     private int calculateBlockedPenalty(GameState state) {
         int blockers = 0;
-        Map<String, Integer> nextExpectedRank = getNextExpectedRanks(state);
-
         for (Stack<Card> tableauPile : state.getTableauPiles()) {
-            if (tableauPile.isEmpty()) continue;
-            
             for (int i = 0; i < tableauPile.size() - 1; i++) {
-                Card cardUnderneath = tableauPile.get(i);
-                Integer expectedRank = nextExpectedRank.get(cardUnderneath.getSuit());
-                if (expectedRank != null && expectedRank > 0 && Rules.getRankValue(cardUnderneath.getRank()) == expectedRank) {
+                int cardUnderneath = tableauPile.get(i).getIndex();
+                if (cardUnderneath >= 0 && CompactState.rankOf(cardUnderneath) == nextExpectedRank(state, CompactState.suitOf(cardUnderneath))) {
                     blockers += tableauPile.size() - (i + 1);
                     break;
                 }
@@ -83,21 +81,130 @@ public class Heuristic {
         return blockers;
     }
 
-    private Map<String, Integer> getNextExpectedRanks(GameState state) {
-        Map<String, Integer> nextExpectedRankMap = new HashMap<>();
-        String[] suits = {"Clubs", "Diamonds", "Hearts", "Spades"};
-        for (String suit : suits) {
-            nextExpectedRankMap.put(suit, 1);
-        }
-
+    private int nextExpectedRank(GameState state, int suit) {
         for (Stack<Card> homePile : state.getHomeCells()) {
             if (!homePile.isEmpty()) {
-                Card topCard = homePile.peek();
-                String suit = topCard.getSuit();
-                int currentRank = Rules.getRankValue(topCard.getRank());
-                nextExpectedRankMap.put(suit, currentRank < 13 ? currentRank + 1 : 0);
+                int topCard = homePile.peek().getIndex();
+                if (topCard >= 0 && CompactState.suitOf(topCard) == suit) {
+                    int currentRank = CompactState.rankOf(topCard);
+                    return currentRank < CompactState.RANKS ? currentRank + 1 : 0;
+                }
             }
         }
-        return nextExpectedRankMap;
+        return 1;
+    }
+
+    @Override
+    public int calculate(CompactState state) {
+        int pileTotals = evaluatePiles(state);
+        int sequenceScore = pileTotals >>> 16;
+        int blockedCount = pileTotals & 0xFFFF;
+
+        int homeReward = state.getCardsInHomeCount() * REWARD_PER_CARD_IN_HOME;
+        int sequenceReward = sequenceScore * REWARD_PER_SEQUENCE_CARD;
+        int emptyTableauReward = state.getEmptyTableauPilesCount() * REWARD_PER_EMPTY_TABLEAU;
+        int freeCellPenalty = (4 - state.getEmptyFreeCellsCount()) * PENALTY_PER_USED_FREECELL;
+        int blockedPenalty = blockedCount * PENALTY_PER_BLOCKED_CARD;
+        int score = homeReward + sequenceReward + emptyTableauReward + freeCellPenalty + blockedPenalty;
+
+        if (VERIFY_INCREMENTAL && score != calculateFromScratch(state)) {
+            throw new IllegalStateException("Incremental heuristic diverged from full recompute");
+        }
+        return score;
+    }
+
+    static int evaluatePiles(CompactState state) {
+        int stale = state.getStalePiles();
+        while (stale != 0) {
+            int pile = Integer.numberOfTrailingZeros(stale);
+            stale &= stale - 1;
+            state.setPileEvaluation(pile, evaluatePile(state, pile));
+        }
+
+        int sequenceScore = 0;
+        int blockedCount = 0;
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            int evaluation = state.getPileEvaluation(pile);
+            sequenceScore += evaluation >>> 8;
+            blockedCount += evaluation & 0xFF;
+        }
+        return sequenceScore << 16 | blockedCount;
+    }
+
+    private static int evaluatePile(CompactState state, int pile) {
+        int size = state.pileSize(pile);
+        int sequenceLength = 1;
+        for (int i = size - 2; i >= 0; i--) {
+            int higherCard = state.cardAt(pile, i + 1);
+            int lowerCard = state.cardAt(pile, i);
+            if (CompactState.rankOf(lowerCard) != CompactState.rankOf(higherCard) - 1 || CompactState.isRed(lowerCard) == CompactState.isRed(higherCard)) {
+                break;
+            }
+            sequenceLength++;
+        }
+
+        int blockers = 0;
+        for (int i = 0; i < size - 1; i++) {
+            int cardUnderneath = state.cardAt(pile, i);
+            if (CompactState.rankOf(cardUnderneath) == state.homeRank(CompactState.suitOf(cardUnderneath)) + 1) {
+                blockers = size - (i + 1);
+                break;
+            }
+        }
+        return (sequenceLength > 1 ? sequenceLength : 0) << 8 | blockers;
+    }
+
+    int calculateFromScratch(CompactState state) {
+        int homeReward = state.getCardsInHomeCount() * REWARD_PER_CARD_IN_HOME;
+        int sequenceReward = calculateSequenceScore(state) * REWARD_PER_SEQUENCE_CARD;
+        int emptyTableauReward = state.getEmptyTableauPilesCount() * REWARD_PER_EMPTY_TABLEAU;
+        int freeCellPenalty = (4 - state.getEmptyFreeCellsCount()) * PENALTY_PER_USED_FREECELL;
+        int blockedPenalty = calculateBlockedPenalty(state) * PENALTY_PER_BLOCKED_CARD;
+
+        return homeReward + sequenceReward + emptyTableauReward + freeCellPenalty + blockedPenalty;
+    }
+
+    private int calculateSequenceScore(CompactState state) {
+        int totalCardsInOrderedSequences = 0;
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            int size = state.pileSize(pile);
+            if (size <= 1) continue;
+
+            int sequenceLength = 1;
+            for (int i = size - 2; i >= 0; i--) {
+                int higherCard = state.cardAt(pile, i + 1);
+                int lowerCard = state.cardAt(pile, i);
+
+                boolean isCorrectOrder = CompactState.rankOf(lowerCard) == CompactState.rankOf(higherCard) - 1;
+                boolean isAlternatingColor = CompactState.isRed(lowerCard) != CompactState.isRed(higherCard);
+
+                if (isCorrectOrder && isAlternatingColor) {
+                    sequenceLength++;
+                } else {
+                    break;
+                }
+            }
+
+            if (sequenceLength > 1) {
+                totalCardsInOrderedSequences += sequenceLength;
+            }
+        }
+        return totalCardsInOrderedSequences;
+    }
+
+    private int calculateBlockedPenalty(CompactState state) {
+        int blockers = 0;
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            int size = state.pileSize(pile);
+            for (int i = 0; i < size - 1; i++) {
+                int cardUnderneath = state.cardAt(pile, i);
+                int homeRank = state.homeRank(CompactState.suitOf(cardUnderneath));
+                if (homeRank < CompactState.RANKS && CompactState.rankOf(cardUnderneath) == homeRank + 1) {
+                    blockers += size - (i + 1);
+                    break;
+                }
+            }
+        }
+        return blockers;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package search;
+
+import models.CompactState;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public interface HeuristicFunction {
+
+    int calculate(CompactState state);
+
+    static HeuristicFunction forName(String name) throws IOException {
+        switch (name.toLowerCase()) {
+            case "default":
+                return new Heuristic();
+            case "admissible":
+                return new AdmissibleHeuristic();
+            default:
+                return WeightedHeuristic.load(Paths.get(name));
+        }
+    }
+}
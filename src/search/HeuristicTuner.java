@@ -0,0 +1,60 @@
+package search;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+public class HeuristicTuner {
+
+    private final SolverConfig config;
+
+    public HeuristicTuner(SolverConfig config) {
+        this.config = config;
+    }
+
+    public void run(Iterable<BatchSolver.Deal> deals, List<String> heuristicNames, PrintStream out) throws IOException {
+        String[] summaries = new String[heuristicNames.size()];
+        out.println("heuristic,deal,status,moves,nodes,ms");
+
+        for (int i = 0; i < heuristicNames.size(); i++) {
+            String name = heuristicNames.get(i);
+            SolverConfig tuned = config.copy();
+            tuned.setVerbose(false);
+            tuned.setHeuristic(HeuristicFunction.forName(name));
+
+            int total = 0;
+            int solved = 0;
+            long totalMoves = 0;
+            long totalNodes = 0;
+            long totalMillis = 0;
+            for (BatchSolver.Deal deal : deals) {
+                total++;
+                SearchResult result;
+                try {
+                    result = tuned.createSolver().search(deal.load());
+                } catch (Exception e) {
+                    System.err.println("Error solving " + deal.getName() + ": " + e.getMessage());
+                    continue;
+                }
+                int moves = result.isSolved() ? result.getSolution().size() : 0;
+                out.println(name + "," + deal.getName() + "," + result.getStopReason().name().toLowerCase() + ","
+                    + moves + "," + result.getNodesVisited() + "," + result.getElapsedMillis());
+
+                if (result.isSolved()) {
+                    solved++;
+                    totalMoves += moves;
+                }
+                totalNodes += result.getNodesVisited();
+                totalMillis += result.getElapsedMillis();
+            }
+
+            summaries[i] = String.format("%-40s solved %d/%d, nodes %d, mean moves %.1f, %d ms",
+                name, solved, total, totalNodes, solved > 0 ? (double) totalMoves / solved : 0.0, totalMillis);
+        }
+
+        out.println();
+        for (String summary : summaries) {
+            out.println(summary);
+        }
+    }
+}
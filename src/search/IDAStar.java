@@ -0,0 +1,295 @@
+package search;
+
+import metrics.MetricsSink;
+import metrics.SearchMetrics;
+import models.CompactState;
+import models.Move;
+import rules.Solvability;
+
+import java.util.Arrays;
+
+public class IDAStar implements Solver {
+
+    private static final int FOUND = Integer.MIN_VALUE;
+    private static final int STOPPED = Integer.MIN_VALUE + 1;
+    private static final int NO_BOUND = Integer.MAX_VALUE;
+    private static final int INITIAL_FRAMES = 64;
+
+    private final HeuristicFunction heuristic;
+    private final SolverConfig config;
+
+    private CompactState board;
+    private int[][] moves;
+    private int[][] childScores;
+    private int[][] autoMoves;
+    private int[] pathMoves;
+    private long[] pathKeys;
+
+    private long[] tableKeys;
+    private int[] tableEntries;
+    private int tableMask;
+    private int iteration;
+
+    private SearchBudget budget;
+    private CancellationToken cancellation;
+    private SearchMetrics metrics;
+    private double weight;
+    private long deadline;
+    private long visitedNodes;
+    private boolean depthLimited;
+    private SearchResult.StopReason stopReason;
+    private int solutionLength;
+
+    public IDAStar() {
+        this(new SolverConfig());
+    }
+
+    public IDAStar(SolverConfig config) {
+        this.heuristic = config.getHeuristic();
+        this.config = config;
+    }
+
+    @Override
+    public synchronized SearchResult search(CompactState initialState, CancellationToken cancellation) {
+        String problem = Solvability.findStructuralProblem(initialState);
+        if (problem != null) {
+            log("Deal rejected as unsolvable: " + problem);
+            return new SearchResult(null, SearchResult.StopReason.UNSOLVABLE, 0, 0, new SearchMetrics());
+        }
+
+        MetricsSink sink = config.getMetricsSink();
+        budget = config.getBudget();
+        this.cancellation = cancellation;
+        metrics = new SearchMetrics();
+        weight = config.getHeuristicWeight();
+        long startTime = System.nanoTime();
+        deadline = budget.deadlineNanos(startTime);
+        visitedNodes = 0;
+        depthLimited = false;
+        stopReason = null;
+
+        board = initialState.copy();
+        if (pathMoves == null) {
+            moves = new int[INITIAL_FRAMES][];
+            childScores = new int[INITIAL_FRAMES][];
+            autoMoves = new int[INITIAL_FRAMES][];
+            pathMoves = new int[INITIAL_FRAMES];
+            pathKeys = new long[INITIAL_FRAMES + 1];
+        }
+        allocateTranspositionTable(config.getTranspositionTableBits());
+
+        pathKeys[0] = board.getZobristKey();
+        int bound = Node.weightedFScore(0, heuristic.calculate(board), weight);
+        int result = board.isSolved() ? FOUND : NO_BOUND;
+        solutionLength = 0;
+
+        while (result != FOUND && result != STOPPED) {
+            nextIteration();
+            log("IDA* iteration with bound " + bound + ", nodes visited: " + visitedNodes);
+            depthLimited = false;
+            result = expand(0, bound);
+            if (result == NO_BOUND) {
+                stopReason = depthLimited ? SearchResult.StopReason.DEPTH_LIMIT : SearchResult.StopReason.EXHAUSTED;
+                break;
+            }
+            if (result != FOUND && result != STOPPED) {
+                bound = result;
+            }
+        }
+
+        long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+        metrics.finish();
+        if (sink.isEnabled()) {
+            sink.onFinish(metrics);
+        }
+        SearchResult searchResult;
+        if (result == FOUND) {
+            log("Solution Found!");
+            searchResult = new SearchResult(MoveGenerator.reconstructPath(buildPath(initialState)), SearchResult.StopReason.SOLVED, visitedNodes, elapsed, metrics);
+        } else {
+            log("No solution found (" + stopReason + ").");
+            searchResult = new SearchResult(null, stopReason, visitedNodes, elapsed, metrics);
+        }
+        log("Nodes visited: " + visitedNodes);
+        log("Time taken: " + elapsed + " ms");
+
+        board = null;
+        return searchResult;
+    }
+
+    private int expand(int depth, int bound) {
+        if (visitedNodes >= budget.getMaxNodes()) {
+            stopReason = SearchResult.StopReason.NODE_LIMIT;
+            return STOPPED;
+        }
+        visitedNodes++;
+        metrics.recordExpansion();
+        if (visitedNodes % SearchBudget.CHECK_INTERVAL == 0) {
+            stopReason = budget.checkLimits(deadline, cancellation);
+            if (stopReason != null) {
+                return STOPPED;
+            }
+        }
+        if (depth + 1 > budget.getMaxDepth()) {
+            depthLimited = true;
+            return NO_BOUND;
+        }
+
+        if (depth >= pathMoves.length) {
+            growFrames(Math.min(budget.getMaxDepth(), pathMoves.length * 2));
+        }
+        if (moves[depth] == null) {
+            moves[depth] = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+            childScores[depth] = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+            autoMoves[depth] = new int[CompactState.DECK_SIZE];
+        }
+        int[] depthMoves = moves[depth];
+        int[] scores = childScores[depth];
+        int[] depthAutoMoves = autoMoves[depth];
+        int pathCost = depth + 1;
+        int moveCount = MoveGenerator.generateMoves(board, depthMoves);
+
+        for (int i = 0; i < moveCount; i++) {
+            Move.apply(board, depthMoves[i]);
+            int autoCount = MoveGenerator.performAutocompleteMoves(board, depthAutoMoves);
+            if (board.isSolved()) {
+                pathMoves[depth] = depthMoves[i];
+                solutionLength = pathCost;
+                undo(depthMoves[i], depthAutoMoves, autoCount);
+                return FOUND;
+            }
+            if (Solvability.isDeadEnd(board)) {
+                metrics.recordDeadEnd();
+                scores[i] = NO_BOUND;
+            } else {
+                scores[i] = Node.weightedFScore(pathCost, heuristic.calculate(board), weight);
+            }
+            undo(depthMoves[i], depthAutoMoves, autoCount);
+        }
+        sortByScore(depthMoves, scores, moveCount);
+
+        int nextBound = NO_BOUND;
+        for (int i = 0; i < moveCount; i++) {
+            if (scores[i] > bound) {
+                nextBound = Math.min(nextBound, scores[i]);
+                break;
+            }
+            int move = depthMoves[i];
+            Move.apply(board, move);
+            int autoCount = MoveGenerator.performAutocompleteMoves(board, depthAutoMoves);
+            long key = board.getZobristKey();
+
+            int result;
+            if (onPath(key, depth) || !recordVisit(key, pathCost)) {
+                metrics.recordClosedDuplicate();
+                result = NO_BOUND;
+            } else {
+                metrics.recordGenerated();
+                pathMoves[depth] = move;
+                pathKeys[depth + 1] = key;
+                result = expand(depth + 1, bound);
+            }
+            undo(move, depthAutoMoves, autoCount);
+
+            if (result == FOUND || result == STOPPED) {
+                if (result == FOUND) {
+                    pathMoves[depth] = move;
+                }
+                return result;
+            }
+            nextBound = Math.min(nextBound, result);
+        }
+        return nextBound;
+    }
+
+    private void growFrames(int frames) {
+        moves = Arrays.copyOf(moves, frames);
+        childScores = Arrays.copyOf(childScores, frames);
+        autoMoves = Arrays.copyOf(autoMoves, frames);
+        pathMoves = Arrays.copyOf(pathMoves, frames);
+        pathKeys = Arrays.copyOf(pathKeys, frames + 1);
+    }
+
+    private void undo(int move, int[] recordedAutoMoves, int autoCount) {
+        while (autoCount > 0) {
+            Move.undo(board, recordedAutoMoves[--autoCount]);
+        }
+        Move.undo(board, move);
+    }
+
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] > score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    private boolean onPath(long key, int depth) {
+        for (int i = depth; i >= 0; i--) {
+            if (pathKeys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void allocateTranspositionTable(int bits) {
+        if (bits <= 0) {
+            tableKeys = null;
+            tableEntries = null;
+            return;
+        }
+        if (tableKeys != null && tableKeys.length == 1 << bits) {
+            return;
+        }
+        tableKeys = new long[1 << bits];
+        tableEntries = new int[1 << bits];
+        tableMask = (1 << bits) - 1;
+        iteration = 0;
+    }
+
+    private void nextIteration() {
+        iteration = (iteration + 1) & 0xFFFF;
+        if (iteration == 0 && tableKeys != null) {
+            Arrays.fill(tableKeys, 0L);
+            iteration = 1;
+        }
+    }
+
+    private boolean recordVisit(long key, int pathCost) {
+        if (tableKeys == null) {
+            return true;
+        }
+        long mixed = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        int slot = (int) (mixed ^ (mixed >>> 33)) & tableMask;
+        int entry = tableEntries[slot];
+        if (tableKeys[slot] == key && entry >>> 16 == iteration && (entry & 0xFFFF) <= pathCost) {
+            return false;
+        }
+        tableKeys[slot] = key;
+        tableEntries[slot] = iteration << 16 | pathCost;
+        return true;
+    }
+
+    private Node buildPath(CompactState initialState) {
+        Node node = new Node(null, initialState, 0, 0, 0, 0);
+        for (int depth = 0; depth < solutionLength; depth++) {
+            node = new Node(node, pathMoves[depth], 0L, depth + 1, depth + 1, 0, depth + 1);
+        }
+        return node;
+    }
+
+    private void log(String message) {
+        if (config.isVerbose()) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package search;
+
+import models.Card;
+import models.CompactState;
+import models.Move;
+import rules.Rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES_PER_STATE = 256;
+
+    private MoveGenerator() {
+    }
+
+    public static CompactState materialize(Node node) {
+        if (node.isMaterialized()) {
+            return node.getState();
+        }
+
+        Node ancestor = node.getParent();
+        int replayDepth = 1;
+        while (!ancestor.isMaterialized()) {
+            ancestor = ancestor.getParent();
+            replayDepth++;
+        }
+
+        int[] replay = new int[replayDepth];
+        Node current = node;
+        for (int i = replayDepth - 1; i >= 0; i--) {
+            replay[i] = current.getMove();
+            current = current.getParent();
+        }
+
+        CompactState state = ancestor.getState().copy();
+        for (int move : replay) {
+            Move.apply(state, move);
+            performAutocompleteMoves(state, null);
+        }
+        node.setState(state);
+        return state;
+    }
+
+    public static int generateMoves(CompactState state, int[] moves) {
+        int count = 0;
+
+        for (int fromPile = 0; fromPile < 8; fromPile++) {
+            if (Rules.canMoveTableauToHomeCell(state, fromPile)) {
+                moves[count++] = Move.of(Move.TABLEAU_TO_HOME, fromPile, 0, 1, state.topCard(fromPile));
+            }
+        }
+
+        for (int fromFreeCell = 0; fromFreeCell < 4; fromFreeCell++) {
+            if (Rules.canMoveFreeCellToHomeCell(state, fromFreeCell)) {
+                moves[count++] = Move.of(Move.FREECELL_TO_HOME, fromFreeCell, 0, 1, state.getFreeCell(fromFreeCell));
+            }
+        }
+
+        for (int fromFreeCell = 0; fromFreeCell < 4; fromFreeCell++) {
+            if (state.getFreeCell(fromFreeCell) != CompactState.NO_CARD) {
+                for (int toPile = 0; toPile < 8; toPile++) {
+                    if (Rules.canMoveFreeCellToTableau(state, fromFreeCell, toPile)) {
+                        moves[count++] = Move.of(Move.FREECELL_TO_TABLEAU, fromFreeCell, toPile, 1, state.getFreeCell(fromFreeCell));
+                    }
+                }
+            }
+        }
+
+        for (int fromPile = 0; fromPile < 8; fromPile++) {
+            if (!state.isPileEmpty(fromPile)) {
+                for (int toPile = 0; toPile < 8; toPile++) {
+                    if (fromPile == toPile) continue;
+
+                    if (Rules.canMoveTableauToTableau(state, fromPile, toPile)) {
+                        moves[count++] = Move.of(Move.TABLEAU_TO_TABLEAU, fromPile, toPile, 1, state.topCard(fromPile));
+                    }
+
+                    int numCards = Rules.getSupermoveLength(state, fromPile, toPile);
+                    if (numCards >= 2) {
+                        moves[count++] = Move.of(Move.TABLEAU_TO_TABLEAU, fromPile, toPile, numCards, state.cardAt(fromPile, state.pileSize(fromPile) - numCards));
+                    }
+                }
+            }
+        }
+
+        for (int fromPile = 0; fromPile < 8; fromPile++) {
+            if (!state.isPileEmpty(fromPile)) {
+                for (int toFreeCell = 0; toFreeCell < 4; toFreeCell++) {
+                    if (Rules.canMoveTableauToFreeCell(state, fromPile, toFreeCell)) {
+                        moves[count++] = Move.of(Move.TABLEAU_TO_FREECELL, fromPile, toFreeCell, 1, state.topCard(fromPile));
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    static int[] findMoves(CompactState initialState, List<SolutionStep> solution) {
+        CompactState state = initialState.copy();
+        int[] moves = new int[solution.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = findMove(state, solution.get(i));
+            if (moves[i] == Move.NONE) {
+                return null;
+            }
+            Move.apply(state, moves[i]);
+            performAutocompleteMoves(state, null);
+        }
+        return moves;
+    }
+
+    private static int findMove(CompactState state, SolutionStep step) {
+        int[] moves = new int[MAX_MOVES_PER_STATE];
+        int moveCount = generateMoves(state, moves);
+        for (int i = 0; i < moveCount; i++) {
+            SolutionStep candidate = describeStep(state, moves[i], Collections.emptyList());
+            if (candidate.primaryMoveNotation.equals(step.primaryMoveNotation)
+                && candidate.primaryMoveDescription.equals(step.primaryMoveDescription)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static SolutionStep describeStep(CompactState state, int move, List<Card> autoMovedCards) {
+        Card cardToMove = CompactState.toCard(Move.card(move));
+        int from = Move.from(move);
+        int to = Move.to(move);
+        String notation = Move.toNotation(move);
+        String description;
+
+        switch (Move.kind(move)) {
+            case Move.TABLEAU_TO_HOME:
+                description = String.format("Move %s from Tableau %d to Home", cardToMove, from + 1);
+                break;
+            case Move.FREECELL_TO_HOME:
+                description = String.format("Move %s from FreeCell %c to Home", cardToMove, getFreeCellChar(from));
+                break;
+            case Move.FREECELL_TO_TABLEAU:
+                description = String.format("Move %s from FreeCell %c to Tableau %d", cardToMove, getFreeCellChar(from), to + 1);
+                break;
+            case Move.TABLEAU_TO_TABLEAU:
+                if (Move.count(move) > 1) {
+                    Card lastCard = CompactState.toCard(state.topCard(from));
+                    description = String.format("Move %s-%s from Tableau %d to Tableau %d", cardToMove, lastCard, from + 1, to + 1);
+                } else {
+                    description = String.format("Move %s from Tableau %d to Tableau %d", cardToMove, from + 1, to + 1);
+                }
+                break;
+            default:
+                description = String.format("Move %s from Tableau %d to FreeCell %c", cardToMove, from + 1, getFreeCellChar(to));
+                break;
+        }
+        return new SolutionStep(notation, description, autoMovedCards);
+    }
+
+    public static int performAutocompleteMoves(CompactState state, int[] record) {
+        int movedCount = 0;
+        boolean moveMadeInThisPassTotal;
+
+        do {
+            moveMadeInThisPassTotal = false;
+            for (int i = 0; i < CompactState.TABLEAU_PILES; i++) {
+                while (!state.isPileEmpty(i)) {
+                    int card = state.topCard(i);
+                    if (Rules.canMoveTableauToHomeCell(state, i) && isSafeToAutocomplete(state, card)) {
+                        state.popTableau(i);
+                        state.addToHome(card);
+                        if (record != null) {
+                            record[movedCount] = Move.of(Move.TABLEAU_TO_HOME, i, 0, 1, card);
+                        }
+                        movedCount++;
+                        moveMadeInThisPassTotal = true;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < CompactState.FREE_CELLS; i++) {
+                int card = state.getFreeCell(i);
+                if (card != CompactState.NO_CARD && Rules.canMoveFreeCellToHomeCell(state, i) && isSafeToAutocomplete(state, card)) {
+                    state.setFreeCell(i, CompactState.NO_CARD);
+                    state.addToHome(card);
+                    if (record != null) {
+                        record[movedCount] = Move.of(Move.FREECELL_TO_HOME, i, 0, 1, card);
+                    }
+                    movedCount++;
+                    moveMadeInThisPassTotal = true;
+                }
+            }
+        } while (moveMadeInThisPassTotal);
+        return movedCount;
+    }
+
+    private static boolean isSafeToAutocomplete(CompactState state, int cardToMove) {
+        int rankVal = CompactState.rankOf(cardToMove);
+
+        if (rankVal <= 2) return true;
+
+        int requiredRankOnOpposite = rankVal - 2;
+        boolean cardIsRed = CompactState.isRed(cardToMove);
+
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            boolean suitToCheckIsRed = CompactState.isRed(CompactState.cardIndex(suit, 1));
+            if (cardIsRed != suitToCheckIsRed) {
+                if (state.homeRank(suit) < requiredRankOnOpposite) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public static List<SolutionStep> reconstructPath(Node goalNode) {
+        List<Node> nodes = new ArrayList<>();
+        Node currentNode = goalNode;
+        while (currentNode.getParent() != null) {
+            nodes.add(currentNode);
+            currentNode = currentNode.getParent();
+        }
+        Collections.reverse(nodes);
+
+        List<SolutionStep> path = new ArrayList<>();
+        CompactState state = currentNode.getState().copy();
+        int[] autoMoves = new int[CompactState.DECK_SIZE];
+        for (Node node : nodes) {
+            int move = node.getMove();
+            CompactState before = state.copy();
+            Move.apply(state, move);
+            int autoMoveCount = performAutocompleteMoves(state, autoMoves);
+
+            List<Card> autoMovedCards = new ArrayList<>(autoMoveCount);
+            for (int i = 0; i < autoMoveCount; i++) {
+                autoMovedCards.add(CompactState.toCard(Move.card(autoMoves[i])));
+            }
+            path.add(describeStep(before, move, autoMovedCards));
+        }
+        return path;
+    }
+
+    private static char getFreeCellChar(int index) {
+        return (char) ('a' + index);
+    }
+}
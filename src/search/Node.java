@@ -1,27 +1,53 @@
 package search;
 
-import models.GameState;
-import java.util.Objects;
+import models.CompactState;
+import models.Move;
 
 public class Node {
-    private Node parent;
-    private int depth;
-    private int pathCost;
-    private GameState state;
-    private SolutionStep step; 
+    private final Node parent;
+    private final int depth;
+    private final int pathCost;
+    private final int heuristicScore;
+    private final int fScore;
+    private final long sequence;
+    private final int move;
+    private final long stateKey;
+    private CompactState state;
 
-    public Node(Node parent, GameState state, SolutionStep step, int depth, int pathCost) {
+    public Node(Node parent, CompactState state, int depth, int pathCost, int heuristicScore, long sequence) {
+        this(parent, Move.NONE, state.getZobristKey(), depth, pathCost, heuristicScore, sequence);
+        this.state = state;
+    }
+
+    public Node(Node parent, int move, long stateKey, int depth, int pathCost, int heuristicScore, long sequence) {
+        this(parent, move, stateKey, depth, pathCost, heuristicScore, pathCost + heuristicScore, sequence);
+    }
+
+    public Node(Node parent, int move, long stateKey, int depth, int pathCost, int heuristicScore, int fScore, long sequence) {
         this.parent = parent;
+        this.move = move;
+        this.stateKey = stateKey;
         this.depth = depth;
         this.pathCost = pathCost;
-        this.state = state;
-        this.step = step;
+        this.heuristicScore = heuristicScore;
+        this.fScore = fScore;
+        this.sequence = sequence;
     }
 
-    public SolutionStep getStep() {
-        return step;
+    public static int weightedFScore(int pathCost, int heuristicScore, double weight) {
+        return weight == 1.0 ? pathCost + heuristicScore : pathCost + (int) Math.round(weight * heuristicScore);
     }
-    
+
+    public Node withFScore(int newFScore, long newSequence) {
+        Node copy = new Node(parent, move, stateKey, depth, pathCost, heuristicScore, newFScore, newSequence);
+        copy.state = state;
+        return copy;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
     public Node getParent() {
         return parent;
     }
@@ -34,24 +60,54 @@ public class Node {
         return pathCost;
     }
 
-    public GameState getState() {
+    public int getHeuristicScore() {
+        return heuristicScore;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getStateKey() {
+        return stateKey;
+    }
+
+    public boolean isMaterialized() {
+        return state != null;
+    }
+
+    public CompactState getState() {
         return state;
     }
-    
-    public int getFScore(Heuristic heuristic) {
-        return this.pathCost + heuristic.calculate(this.state);
+
+    public void setState(CompactState state) {
+        this.state = state;
+    }
+
+    public int getFScore() {
+        return fScore;
     }
-    
+
+    public static int compareByScore(Node a, Node b) {
+        if (a.fScore != b.fScore) {
+            return Integer.compare(a.fScore, b.fScore);
+        }
+        if (a.heuristicScore != b.heuristicScore) {
+            return Integer.compare(a.heuristicScore, b.heuristicScore);
+        }
+        return Long.compare(b.sequence, a.sequence);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Node other = (Node) o;
-        return Objects.equals(this.state, other.state);
+        return this.stateKey == other.stateKey;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(state);
+        return Long.hashCode(stateKey);
     }
-}
\ No newline at end of file
+}
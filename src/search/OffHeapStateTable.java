@@ -0,0 +1,182 @@
+package search;
+
+import models.CompactState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class OffHeapStateTable implements StateSet {
+
+    public static final int SLOT_BYTES = 80;
+
+    private static final int KEY_BYTES = 8;
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY_REPLACEMENT = 0x9E3779B97F4A7C15L;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final double MAX_LOAD_FACTOR = 0.9;
+    private static final Object UNSAFE = findUnsafe();
+    private static final Method INVOKE_CLEANER = findInvokeCleaner(UNSAFE);
+
+    private final ByteBuffer[] segments;
+    private final int slotsPerSegment;
+    private final long slotCount;
+    private final long maxEntries;
+    private final FileChannel channel;
+    private final Path backingFile;
+    private final byte[] encoding = new byte[CompactState.CANONICAL_ENCODING_BYTES];
+    private long size;
+
+    public OffHeapStateTable(long capacityBytes) {
+        this(capacityBytes, null);
+    }
+
+    public OffHeapStateTable(long capacityBytes, Path file) {
+        slotCount = capacityBytes / SLOT_BYTES;
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("Capacity must hold at least one " + SLOT_BYTES + "-byte slot: " + capacityBytes);
+        }
+        slotsPerSegment = MAX_SEGMENT_BYTES / SLOT_BYTES;
+        maxEntries = (long) (slotCount * MAX_LOAD_FACTOR);
+        segments = new ByteBuffer[(int) ((slotCount + slotsPerSegment - 1) / slotsPerSegment)];
+
+        try {
+            backingFile = file == null ? null : createBackingFile(file);
+            channel = backingFile == null ? null : FileChannel.open(backingFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (int i = 0; i < segments.length; i++) {
+                long firstSlot = (long) i * slotsPerSegment;
+                int segmentBytes = (int) (Math.min(slotsPerSegment, slotCount - firstSlot) * SLOT_BYTES);
+                segments[i] = channel == null
+                    ? ByteBuffer.allocateDirect(segmentBytes)
+                    : channel.map(FileChannel.MapMode.READ_WRITE, firstSlot * SLOT_BYTES, segmentBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map state table file " + file, e);
+        }
+    }
+
+    private static Path createBackingFile(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        return Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+    }
+
+    @Override
+    public boolean add(CompactState state) {
+        return insertIfAbsent(state, true);
+    }
+
+    @Override
+    public boolean contains(CompactState state) {
+        return !insertIfAbsent(state, false);
+    }
+
+    private boolean insertIfAbsent(CompactState state, boolean insert) {
+        long key = state.getZobristKey() == EMPTY ? ZERO_KEY_REPLACEMENT : state.getZobristKey();
+        state.writeCanonicalEncoding(encoding);
+
+        long slot = Long.remainderUnsigned(mix(key), slotCount);
+        for (long probes = 0; probes < slotCount; probes++) {
+            ByteBuffer segment = segments[(int) (slot / slotsPerSegment)];
+            int offset = (int) (slot % slotsPerSegment) * SLOT_BYTES;
+            long storedKey = segment.getLong(offset);
+            if (storedKey == EMPTY) {
+                if (insert) {
+                    if (size >= maxEntries) {
+                        throw new IllegalStateException("Off-heap state table is full (" + size + " states)");
+                    }
+                    segment.putLong(offset, key);
+                    for (int i = 0; i < encoding.length; i++) {
+                        segment.put(offset + KEY_BYTES + i, encoding[i]);
+                    }
+                    size++;
+                }
+                return true;
+            }
+            if (storedKey == key && encodingMatches(segment, offset + KEY_BYTES)) {
+                return false;
+            }
+            slot = slot + 1 == slotCount ? 0 : slot + 1;
+        }
+        return true;
+    }
+
+    private boolean encodingMatches(ByteBuffer segment, int offset) {
+        for (int i = 0; i < encoding.length; i++) {
+            if (segment.get(offset + i) != encoding[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long key) {
+        long mixed = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    public long capacityBytes() {
+        return slotCount * SLOT_BYTES;
+    }
+
+    public double getLoadFactor() {
+        return (double) size / slotCount;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] != null) {
+                release(segments[i]);
+                segments[i] = null;
+            }
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(backingFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not release state table buffer", e);
+        }
+    }
+
+    private static Object findUnsafe() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method findInvokeCleaner(Object unsafe) {
+        try {
+            return unsafe == null ? null : unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
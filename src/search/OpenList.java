@@ -0,0 +1,12 @@
+package search;
+
+public interface OpenList {
+
+    void add(Node node);
+
+    Node poll();
+
+    boolean isEmpty();
+
+    int size();
+}
@@ -0,0 +1,323 @@
+package search;
+
+import metrics.MetricsSink;
+import metrics.SearchMetrics;
+import models.CompactState;
+import models.Move;
+import rules.Solvability;
+
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class ParallelAStar implements Solver {
+
+    private static final long IDLE_PARK_NANOS = 50_000L;
+    private static final int INITIAL_TABLE_ENTRIES = 1 << 16;
+    private static final AtomicInteger WORKER_THREAD_IDS = new AtomicInteger();
+    private static final ExecutorService WORKER_POOL = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "hda-worker-" + WORKER_THREAD_IDS.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HeuristicFunction heuristic;
+    private final SolverConfig config;
+
+    private Worker[] workers;
+    private ConcurrentStateTable closedStates;
+    private AtomicLong outstandingWork;
+    private AtomicLong visitedNodes;
+    private AtomicReference<Node> bestGoal;
+    private AtomicReference<SearchResult.StopReason> stopReason;
+    private AtomicReference<Throwable> failure;
+    private volatile boolean stopped;
+    private volatile boolean depthLimited;
+    private boolean detailed;
+    private SearchBudget budget;
+    private CancellationToken cancellation;
+    private long deadline;
+
+    public ParallelAStar() {
+        this(new SolverConfig());
+    }
+
+    public ParallelAStar(SolverConfig config) {
+        this.heuristic = config.getHeuristic();
+        this.config = config;
+    }
+
+    @Override
+    public synchronized SearchResult search(CompactState initialState, CancellationToken cancellation) {
+        String problem = Solvability.findStructuralProblem(initialState);
+        if (problem != null) {
+            log("Deal rejected as unsolvable: " + problem);
+            return new SearchResult(null, SearchResult.StopReason.UNSOLVABLE, 0, 0, new SearchMetrics());
+        }
+
+        int threadCount = config.getThreadCount();
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        closedStates = new ConcurrentStateTable((int) Math.min(INITIAL_TABLE_ENTRIES, config.getBudget().getMaxNodes()));
+        outstandingWork = new AtomicLong(threadCount);
+        visitedNodes = new AtomicLong();
+        bestGoal = new AtomicReference<>();
+        stopReason = new AtomicReference<>();
+        failure = new AtomicReference<>();
+        stopped = false;
+        depthLimited = false;
+        budget = config.getBudget();
+        this.cancellation = cancellation;
+        MetricsSink sink = config.getMetricsSink();
+        detailed = sink.isEnabled();
+        SearchMetrics metrics = new SearchMetrics();
+        long startTime = System.nanoTime();
+        deadline = budget.deadlineNanos(startTime);
+
+        Node initialNode = new Node(null, initialState, 0, 0, heuristic.calculate(initialState), 0);
+        workers[ownerOf(initialNode.getStateKey())].receive(initialNode);
+
+        Future<?>[] tasks = new Future<?>[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            tasks[i] = WORKER_POOL.submit(workers[i]);
+        }
+        boolean interrupted = false;
+        for (Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop(SearchResult.StopReason.CANCELLED);
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                    stop(SearchResult.StopReason.CANCELLED);
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+
+        long totalVisited = 0;
+        for (Worker worker : workers) {
+            totalVisited += worker.visited;
+            metrics.merge(worker.metrics);
+        }
+        metrics.finish();
+        if (detailed) {
+            sink.onFinish(metrics);
+        }
+
+        long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+        log(String.format("Closed table: %d states, load factor %.3f, average probe length %.2f, max probe length %d",
+            closedStates.size(), closedStates.getLoadFactor(), closedStates.getAverageProbeLength(), closedStates.getMaxProbeLength()));
+
+        Node goal = bestGoal.get();
+        if (goal != null) {
+            log("Solution Found!");
+            log("Nodes visited: " + totalVisited);
+            log("Time taken: " + elapsed + " ms");
+            return new SearchResult(MoveGenerator.reconstructPath(goal), SearchResult.StopReason.SOLVED, totalVisited, elapsed, metrics);
+        }
+        SearchResult.StopReason reason = stopReason.get();
+        if (reason == null) {
+            reason = depthLimited ? SearchResult.StopReason.DEPTH_LIMIT : SearchResult.StopReason.EXHAUSTED;
+        }
+        log("No solution found (" + reason + ").");
+        log("Nodes visited: " + totalVisited);
+        log("Time taken: " + elapsed + " ms");
+        return new SearchResult(null, reason, totalVisited, elapsed, metrics);
+    }
+
+    private void log(String message) {
+        if (config.isVerbose()) {
+            System.out.println(message);
+        }
+    }
+
+    private int ownerOf(long stateKey) {
+        return (int) Long.remainderUnsigned(stateKey, workers.length);
+    }
+
+    private void stop(SearchResult.StopReason reason) {
+        stopReason.compareAndSet(null, reason);
+        stopped = true;
+    }
+
+    private void recordGoal(Node goal) {
+        bestGoal.compareAndSet(null, goal);
+        stop(SearchResult.StopReason.SOLVED);
+    }
+
+    private class Worker implements Runnable {
+
+        private final int index;
+        private final OpenList openList = config.createOpenList();
+        private final HashSet<Long> openStates = new HashSet<>();
+        private final ConcurrentLinkedQueue<Node> inbox = new ConcurrentLinkedQueue<>();
+        private final SearchMetrics metrics = new SearchMetrics();
+        private long nodeSequence;
+        private long visited;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        void receive(Node node) {
+            if (openStates.add(node.getStateKey())) {
+                openList.add(node);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                search();
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                stop(SearchResult.StopReason.CANCELLED);
+            }
+        }
+
+        private void search() {
+            int[] moves = new int[MoveGenerator.MAX_MOVES_PER_STATE];
+            int[] autoMoves = new int[CompactState.DECK_SIZE];
+            boolean active = true;
+
+            while (!stopped) {
+                Node incoming;
+                while ((incoming = inbox.poll()) != null) {
+                    if (active) {
+                        outstandingWork.decrementAndGet();
+                    } else {
+                        active = true;
+                    }
+                    receive(incoming);
+                }
+
+                if (openList.isEmpty()) {
+                    if (active) {
+                        active = false;
+                        if (outstandingWork.decrementAndGet() == 0) {
+                            stopped = true;
+                        }
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                Node currentNode = openList.poll();
+                openStates.remove(currentNode.getStateKey());
+                visited++;
+                metrics.recordExpansion();
+                if (detailed) {
+                    metrics.recordScores(currentNode.getFScore(), currentNode.getHeuristicScore(), currentNode.getDepth());
+                    metrics.recordOpenListSize(openList.size());
+                }
+                if (visited % SearchBudget.CHECK_INTERVAL == 0) {
+                    long total = visitedNodes.addAndGet(SearchBudget.CHECK_INTERVAL);
+                    SearchResult.StopReason limit = total >= budget.getMaxNodes()
+                        ? SearchResult.StopReason.NODE_LIMIT
+                        : budget.checkLimits(deadline, cancellation);
+                    if (limit != null) {
+                        stop(limit);
+                        break;
+                    }
+                }
+
+                expand(currentNode, moves, autoMoves);
+            }
+        }
+
+        private void expand(Node currentNode, int[] moves, int[] autoMoves) {
+            if (closedStates.insertOrImprove(currentNode.getStateKey(), currentNode.getPathCost()) == ConcurrentStateTable.DUPLICATE) {
+                metrics.recordClosedDuplicate();
+                return;
+            }
+            CompactState currentState = MoveGenerator.materialize(currentNode);
+            if (currentState.isSolved()) {
+                recordGoal(currentNode);
+                return;
+            }
+            if (currentNode.getDepth() + 1 > budget.getMaxDepth()) {
+                depthLimited = true;
+                return;
+            }
+
+            long timer = detailed ? System.nanoTime() : 0;
+            int moveCount = MoveGenerator.generateMoves(currentState, moves);
+            CompactState board = currentState.copy();
+            for (int i = 0; i < moveCount; i++) {
+                int move = moves[i];
+                Move.apply(board, move);
+                int autoMoveCount = MoveGenerator.performAutocompleteMoves(board, autoMoves);
+
+                long successorKey = board.getZobristKey();
+                if (detailed) {
+                    timer = metrics.lapMoveGeneration(timer);
+                }
+                if (Solvability.isDeadEnd(board)) {
+                    metrics.recordDeadEnd();
+                } else if (closedStates.containsAtOrBelow(successorKey, currentNode.getPathCost() + 1)) {
+                    metrics.recordClosedDuplicate();
+                } else {
+                    int owner = ownerOf(successorKey);
+                    if (owner == index && openStates.contains(successorKey)) {
+                        metrics.recordOpenDuplicate();
+                    } else {
+                        if (detailed) {
+                            timer = metrics.lapHashing(timer);
+                        }
+                        Node successor = newSuccessor(currentNode, move, successorKey, board);
+                        if (detailed) {
+                            timer = metrics.lapHeuristic(timer);
+                        }
+                        metrics.recordGenerated();
+                        if (owner == index) {
+                            receive(successor);
+                        } else {
+                            outstandingWork.incrementAndGet();
+                            workers[owner].inbox.add(successor);
+                        }
+                    }
+                }
+                if (detailed) {
+                    timer = metrics.lapHashing(timer);
+                }
+
+                while (autoMoveCount > 0) {
+                    Move.undo(board, autoMoves[--autoMoveCount]);
+                }
+                Move.undo(board, move);
+            }
+            if (detailed) {
+                metrics.lapMoveGeneration(timer);
+            }
+        }
+
+        private Node newSuccessor(Node parent, int move, long successorKey, CompactState board) {
+            int heuristicScore = heuristic.calculate(board);
+            int pathCost = parent.getPathCost() + 1;
+            return new Node(parent, move, successorKey, parent.getDepth() + 1, pathCost, heuristicScore, Node.weightedFScore(pathCost, heuristicScore, config.getHeuristicWeight()), nodeSequence++);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package search;
+
+public interface ResumableSearch {
+
+    SearchResult resume(long expansions);
+
+    default void abandon() {
+    }
+}
@@ -0,0 +1,81 @@
+package search;
+
+public class SearchBudget {
+
+    public static final int CHECK_INTERVAL = 256;
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    public static final int MAX_DEPTH = 1000;
+
+    private long maxNodes = 200000;
+    private long maxTimeMillis = 60000;
+    private long maxMemoryBytes = UNLIMITED;
+    private int maxDepth = 80;
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public void setMaxNodes(long maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("Node limit must be at least 1: " + maxNodes);
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    public void setMaxTimeMillis(long maxTimeMillis) {
+        if (maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Time limit must not be negative: " + maxTimeMillis);
+        }
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public void setMaxMemoryBytes(long maxMemoryBytes) {
+        if (maxMemoryBytes < 1) {
+            throw new IllegalArgumentException("Memory limit must be at least 1 byte: " + maxMemoryBytes);
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth limit must be at least 1: " + maxDepth);
+        }
+        if (maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth limit must be at most " + MAX_DEPTH + ": " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    public long deadlineNanos(long startNanos) {
+        long budgetNanos = maxTimeMillis >= UNLIMITED / 1_000_000 ? UNLIMITED : maxTimeMillis * 1_000_000;
+        return budgetNanos == UNLIMITED ? UNLIMITED : startNanos + budgetNanos;
+    }
+
+    public SearchResult.StopReason checkLimits(long deadlineNanos, CancellationToken cancellation) {
+        if (cancellation.isCancelled()) {
+            return SearchResult.StopReason.CANCELLED;
+        }
+        if (deadlineNanos != UNLIMITED && System.nanoTime() - deadlineNanos > 0) {
+            return SearchResult.StopReason.TIME_LIMIT;
+        }
+        if (maxMemoryBytes != UNLIMITED) {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > maxMemoryBytes) {
+                return SearchResult.StopReason.MEMORY_LIMIT;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package search;
+
+import metrics.SearchMetrics;
+
+import java.util.List;
+
+public class SearchResult {
+
+    public enum StopReason {
+        SOLVED,
+        EXHAUSTED,
+        UNSOLVABLE,
+        DEPTH_LIMIT,
+        NODE_LIMIT,
+        TIME_LIMIT,
+        MEMORY_LIMIT,
+        CANCELLED,
+        ERROR
+    }
+
+    private final List<SolutionStep> solution;
+    private final StopReason stopReason;
+    private final StopReason limitReason;
+    private final long nodesVisited;
+    private final long elapsedMillis;
+    private final SearchMetrics metrics;
+
+    public SearchResult(List<SolutionStep> solution, StopReason stopReason, long nodesVisited, long elapsedMillis, SearchMetrics metrics) {
+        this(solution, stopReason, null, nodesVisited, elapsedMillis, metrics);
+    }
+
+    public SearchResult(List<SolutionStep> solution, StopReason stopReason, StopReason limitReason, long nodesVisited, long elapsedMillis,
+                        SearchMetrics metrics) {
+        this.solution = solution;
+        this.stopReason = stopReason;
+        this.limitReason = limitReason;
+        this.nodesVisited = nodesVisited;
+        this.elapsedMillis = elapsedMillis;
+        this.metrics = metrics;
+    }
+
+    public List<SolutionStep> getSolution() {
+        return solution;
+    }
+
+    public boolean isSolved() {
+        return solution != null;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public StopReason getLimitReason() {
+        return limitReason;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+}
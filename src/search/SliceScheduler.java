@@ -0,0 +1,85 @@
+package search;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SliceScheduler {
+
+    private final ThreadPoolExecutor threads;
+    private final long sliceExpansions;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong slices = new AtomicLong();
+
+    public SliceScheduler(int threadCount, long sliceExpansions) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        if (sliceExpansions < 1) {
+            throw new IllegalArgumentException("Slice must cover at least 1 expansion: " + sliceExpansions);
+        }
+        this.threads = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        this.sliceExpansions = sliceExpansions;
+    }
+
+    public CompletableFuture<SearchResult> submit(ResumableSearch search) {
+        CompletableFuture<SearchResult> result = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        try {
+            threads.execute(new Slice(search, result));
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            search.abandon();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getWaitingSlices() {
+        return threads.getQueue().size();
+    }
+
+    public long getSlices() {
+        return slices.get();
+    }
+
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+    private class Slice implements Runnable {
+        private final ResumableSearch search;
+        private final CompletableFuture<SearchResult> result;
+
+        private Slice(ResumableSearch search, CompletableFuture<SearchResult> result) {
+            this.search = search;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                slices.incrementAndGet();
+                SearchResult finished = search.resume(sliceExpansions);
+                if (finished == null) {
+                    threads.execute(this);
+                    return;
+                }
+                inFlight.decrementAndGet();
+                result.complete(finished);
+            } catch (RuntimeException | Error e) {
+                inFlight.decrementAndGet();
+                search.abandon();
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package search;
+
+import metrics.SearchMetrics;
+import models.CompactState;
+import models.Move;
+import rules.Rules;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SolutionCache implements AutoCloseable {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final int INDEX_RECORD_BYTES = 16;
+    private static final String TOMBSTONE = "dropped";
+
+    private static class Entry {
+        private final int[] moves;
+        private final long nodesVisited;
+        private final long elapsedMillis;
+        private final String solver;
+
+        private Entry(int[] moves, long nodesVisited, long elapsedMillis, String solver) {
+            this.moves = moves;
+            this.nodesVisited = nodesVisited;
+            this.elapsedMillis = elapsedMillis;
+            this.solver = solver;
+        }
+    }
+
+    private final Map<Long, Entry> memory;
+    private final Map<Long, Long> index = new HashMap<>();
+    private final Path file;
+    private final FileChannel data;
+    private final FileChannel indexData;
+    private long hits;
+    private long misses;
+    private long staleEntries;
+
+    public SolutionCache(int memoryCapacity) {
+        this.memory = createLru(memoryCapacity);
+        this.file = null;
+        this.data = null;
+        this.indexData = null;
+    }
+
+    public SolutionCache(int memoryCapacity, Path file) throws IOException {
+        this.memory = createLru(memoryCapacity);
+        this.file = file;
+        this.data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexData = FileChannel.open(Paths.get(file + ".idx"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    private static Map<Long, Entry> createLru(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1: " + capacity);
+        }
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private void loadIndex() throws IOException {
+        long records = indexData.size() / INDEX_RECORD_BYTES;
+        ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_BYTES);
+        long validRecords = 0;
+        long lastOffset = -1;
+        while (validRecords < records) {
+            record.clear();
+            indexData.read(record, validRecords * INDEX_RECORD_BYTES);
+            long key = record.getLong(0);
+            long offset = record.getLong(8);
+            boolean dropped = offset < 0;
+            if (dropped) {
+                offset = ~offset;
+            }
+            if (offset >= data.size()) {
+                break;
+            }
+            if (dropped) {
+                index.remove(key);
+            } else {
+                index.put(key, offset);
+            }
+            lastOffset = Math.max(lastOffset, offset);
+            validRecords++;
+        }
+        indexData.truncate(validRecords * INDEX_RECORD_BYTES);
+
+        try (RandomAccessFile reader = new RandomAccessFile(file.toFile(), "r")) {
+            if (lastOffset >= 0) {
+                reader.seek(lastOffset);
+                reader.readLine();
+            }
+            long offset = reader.getFilePointer();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    long key = Long.parseUnsignedLong(line.substring(0, separator), 16);
+                    if (line.substring(separator + 1).equals(TOMBSTONE)) {
+                        index.remove(key);
+                        appendIndexRecord(key, ~offset);
+                    } else {
+                        index.put(key, offset);
+                        appendIndexRecord(key, offset);
+                    }
+                }
+                offset = reader.getFilePointer();
+            }
+        }
+    }
+
+    public synchronized SearchResult lookup(CompactState initialState) {
+        long key = key(initialState);
+        Entry entry = memory.get(key);
+        if (entry == null && index.containsKey(key)) {
+            entry = readEntry(index.get(key));
+            if (entry != null) {
+                memory.put(key, entry);
+            } else {
+                drop(key);
+            }
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        List<SolutionStep> solution = replay(initialState, entry.moves);
+        if (solution == null) {
+            drop(key);
+            staleEntries++;
+            return null;
+        }
+        hits++;
+        return new SearchResult(solution, SearchResult.StopReason.SOLVED, 0, 0, new SearchMetrics());
+    }
+
+    public synchronized void store(CompactState initialState, SearchResult result, String solver) {
+        if (!result.isSolved()) {
+            return;
+        }
+
+        int[] moves = MoveGenerator.findMoves(initialState, result.getSolution());
+        if (moves == null) {
+            return;
+        }
+        int[] canonicalPiles = inverse(pileOrder(initialState));
+        int[] canonicalCells = inverse(cellOrder(initialState));
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = translate(moves[i], canonicalPiles, canonicalCells);
+        }
+
+        long key = key(initialState);
+        Entry entry = new Entry(moves, result.getNodesVisited(), result.getElapsedMillis(), solver);
+        memory.put(key, entry);
+        if (data != null) {
+            try {
+                long offset = data.size();
+                data.write(ByteBuffer.wrap(format(key, entry).getBytes(StandardCharsets.US_ASCII)), offset);
+                appendIndexRecord(key, offset);
+                index.put(key, offset);
+            } catch (IOException e) {
+                System.err.println("Could not append to solution cache " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void drop(long key) {
+        memory.remove(key);
+        if (index.remove(key) != null) {
+            try {
+                long offset = data.size();
+                data.write(ByteBuffer.wrap(String.format("%016x %s\n", key, TOMBSTONE).getBytes(StandardCharsets.US_ASCII)), offset);
+                appendIndexRecord(key, ~offset);
+            } catch (IOException e) {
+                System.err.println("Could not record dropped entry in solution cache " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized String describe(CompactState initialState) {
+        Entry entry = memory.get(key(initialState));
+        return entry == null ? null
+            : entry.moves.length + " moves, originally " + entry.nodesVisited + " nodes in " + entry.elapsedMillis + " ms by " + entry.solver;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getStaleEntries() {
+        return staleEntries;
+    }
+
+    public static long key(CompactState state) {
+        byte[] encoding = new byte[CompactState.CANONICAL_ENCODING_BYTES];
+        state.writeCanonicalEncoding(encoding);
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : encoding) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static List<SolutionStep> replay(CompactState initialState, int[] canonicalMoves) {
+        int[] pileOrder = pileOrder(initialState);
+        int[] cellOrder = cellOrder(initialState);
+        CompactState state = initialState.copy();
+        Node node = new Node(null, initialState, 0, 0, 0, 0);
+        for (int i = 0; i < canonicalMoves.length; i++) {
+            int move = withCard(state, translate(canonicalMoves[i], pileOrder, cellOrder));
+            if (move == Move.NONE || !isLegal(state, move)) {
+                return null;
+            }
+            Move.apply(state, move);
+            MoveGenerator.performAutocompleteMoves(state, null);
+            node = new Node(node, move, 0L, i + 1, i + 1, 0, i + 1);
+        }
+        return state.isSolved() ? MoveGenerator.reconstructPath(node) : null;
+    }
+
+    private static int withCard(CompactState state, int move) {
+        int from = Move.from(move);
+        int card;
+        switch (Move.kind(move)) {
+            case Move.FREECELL_TO_HOME:
+            case Move.FREECELL_TO_TABLEAU:
+                card = state.getFreeCell(from);
+                break;
+            default:
+                int size = state.pileSize(from);
+                card = Move.count(move) <= size ? state.cardAt(from, size - Move.count(move)) : CompactState.NO_CARD;
+                break;
+        }
+        return card == CompactState.NO_CARD ? Move.NONE : Move.of(Move.kind(move), from, Move.to(move), Move.count(move), card);
+    }
+
+    private static boolean isLegal(CompactState state, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        switch (Move.kind(move)) {
+            case Move.TABLEAU_TO_HOME:
+                return Rules.canMoveTableauToHomeCell(state, from);
+            case Move.FREECELL_TO_HOME:
+                return Rules.canMoveFreeCellToHomeCell(state, from);
+            case Move.FREECELL_TO_TABLEAU:
+                return Rules.canMoveFreeCellToTableau(state, from, to);
+            case Move.TABLEAU_TO_TABLEAU:
+                return Move.count(move) == 1
+                    ? Rules.canMoveTableauToTableau(state, from, to)
+                    : Rules.canMoveMultipleTableauCards(state, from, to, Move.count(move));
+            default:
+                return Rules.canMoveTableauToFreeCell(state, from, to);
+        }
+    }
+
+    private static int[] pileOrder(CompactState state) {
+        int[] order = new int[CompactState.TABLEAU_PILES];
+        for (int position = 0; position < order.length; position++) {
+            order[position] = state.canonicalPile(position);
+        }
+        return order;
+    }
+
+    private static int[] cellOrder(CompactState state) {
+        int[] order = new int[CompactState.FREE_CELLS];
+        for (int cell = 0; cell < order.length; cell++) {
+            int j = cell;
+            while (j > 0 && state.getFreeCell(order[j - 1]) > state.getFreeCell(cell)) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = cell;
+        }
+        return order;
+    }
+
+    private static int[] inverse(int[] order) {
+        int[] inverse = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            inverse[order[i]] = i;
+        }
+        return inverse;
+    }
+
+    private static int translate(int move, int[] piles, int[] cells) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        switch (Move.kind(move)) {
+            case Move.TABLEAU_TO_HOME:
+                from = piles[from];
+                break;
+            case Move.FREECELL_TO_HOME:
+                from = cells[from];
+                break;
+            case Move.FREECELL_TO_TABLEAU:
+                from = cells[from];
+                to = piles[to];
+                break;
+            case Move.TABLEAU_TO_TABLEAU:
+                from = piles[from];
+                to = piles[to];
+                break;
+            default:
+                from = piles[from];
+                to = cells[to];
+                break;
+        }
+        return Move.of(Move.kind(move), from, to, Move.count(move), 0);
+    }
+
+    private static String format(long key, Entry entry) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("%016x %d %d %s", key, entry.nodesVisited, entry.elapsedMillis, entry.solver));
+        for (int move : entry.moves) {
+            line.append(' ').append(Move.toNotation(move));
+        }
+        return line.append('\n').toString();
+    }
+
+    private Entry readEntry(long offset) {
+        try (RandomAccessFile reader = new RandomAccessFile(file.toFile(), "r")) {
+            reader.seek(offset);
+            String[] fields = reader.readLine().split(" ");
+            int[] moves = new int[fields.length - 4];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = Move.parseNotation(fields[i + 4]);
+            }
+            return new Entry(moves, Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Skipping unreadable solution cache entry at offset " + offset + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void appendIndexRecord(long key, long offset) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_BYTES);
+        record.putLong(key).putLong(offset).flip();
+        indexData.write(record, indexData.size());
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (data != null) {
+                data.close();
+                indexData.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not close solution cache " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package search;
+
+public interface SolutionListener {
+
+    void onSolution(SearchResult result, double weight);
+}
@@ -0,0 +1,197 @@
+package search;
+
+import models.Move;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SolutionRecord {
+
+    public static final int MAGIC = 0x46435352;
+    public static final short VERSION = 2;
+
+    private final long dealId;
+    private final String dealName;
+    private final SearchResult.StopReason stopReason;
+    private final long nodesVisited;
+    private final long elapsedMillis;
+    private final int[] moves;
+
+    public SolutionRecord(long dealId, String dealName, SearchResult.StopReason stopReason, long nodesVisited, long elapsedMillis, int[] moves) {
+        this.dealId = dealId;
+        this.dealName = dealName;
+        this.stopReason = stopReason;
+        this.nodesVisited = nodesVisited;
+        this.elapsedMillis = elapsedMillis;
+        this.moves = moves;
+    }
+
+    public long getDealId() {
+        return dealId;
+    }
+
+    public String getDealName() {
+        return dealName;
+    }
+
+    public SearchResult.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+    }
+
+    public static void readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary solution file");
+        }
+        short version = in.readShort();
+        in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary solution file version " + version);
+        }
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(dealId);
+        out.writeUTF(dealName);
+        out.writeByte(stopReason.ordinal());
+        out.writeLong(nodesVisited);
+        out.writeInt((int) Math.min(elapsedMillis, Integer.MAX_VALUE));
+        out.writeShort(moves.length);
+        for (int move : moves) {
+            out.writeShort(Move.kind(move) | Move.from(move) << 3 | Move.to(move) << 6 | Move.count(move) << 9);
+        }
+    }
+
+    public static SolutionRecord read(DataInput in) throws IOException {
+        long dealId;
+        try {
+            dealId = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        String dealName = in.readUTF();
+        SearchResult.StopReason stopReason = SearchResult.StopReason.values()[in.readUnsignedByte()];
+        long nodesVisited = in.readLong();
+        long elapsedMillis = in.readInt();
+        int[] moves = new int[in.readUnsignedShort()];
+        for (int i = 0; i < moves.length; i++) {
+            int packed = in.readUnsignedShort();
+            moves[i] = Move.of(packed & 0x7, packed >>> 3 & 0x7, packed >>> 6 & 0x7, packed >>> 9 & 0xF, 0);
+        }
+        return new SolutionRecord(dealId, dealName, stopReason, nodesVisited, elapsedMillis, moves);
+    }
+
+    public String toText() {
+        StringBuilder line = new StringBuilder();
+        line.append(encodeName(dealName)).append(' ').append(dealId).append(' ').append(stopReason.name().toLowerCase()).append(' ')
+            .append(nodesVisited).append(' ').append(elapsedMillis);
+        for (int move : moves) {
+            line.append(' ').append(Move.toNotation(move));
+        }
+        return line.toString();
+    }
+
+    public static SolutionRecord parseText(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 5) {
+            throw new IllegalArgumentException("Invalid solution record: " + line);
+        }
+        int[] moves = new int[fields.length - 5];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = Move.parseNotation(fields[i + 5]);
+        }
+        return new SolutionRecord(Long.parseLong(fields[1]), decodeName(fields[0]), SearchResult.StopReason.valueOf(fields[2].toUpperCase()),
+            Long.parseLong(fields[3]), Long.parseLong(fields[4]), moves);
+    }
+
+    private static String encodeName(String name) {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '%' || Character.isWhitespace(c)) {
+                encoded.append(String.format("%%%02X", (int) c));
+            } else {
+                encoded.append(c);
+            }
+        }
+        return encoded.length() == 0 ? "%" : encoded.toString();
+    }
+
+    private static String decodeName(String field) {
+        if (field.equals("%")) {
+            return "";
+        }
+        StringBuilder decoded = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= field.length()) {
+                    throw new IllegalArgumentException("Invalid escape in deal name: " + field);
+                }
+                decoded.append((char) Integer.parseInt(field.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                decoded.append(c);
+            }
+        }
+        return decoded.toString();
+    }
+
+    public static long binaryToText(Path binaryFile, Path textFile) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(binaryFile)));
+             BufferedWriter out = Files.newBufferedWriter(textFile)) {
+            readHeader(in);
+            SolutionRecord record;
+            while ((record = read(in)) != null) {
+                out.write(record.toText());
+                out.newLine();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static long textToBinary(Path textFile, Path binaryFile) throws IOException {
+        long count = 0;
+        try (BufferedReader in = Files.newBufferedReader(textFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(binaryFile)))) {
+            writeHeader(out);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    parseText(line).write(out);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,27 @@
+package search;
+
+import models.CompactState;
+import models.GameState;
+
+import java.util.List;
+
+public interface Solver {
+
+    SearchResult search(CompactState initialState, CancellationToken cancellation);
+
+    default ResumableSearch start(CompactState initialState, CancellationToken cancellation) {
+        return expansions -> search(initialState, cancellation);
+    }
+
+    default SearchResult search(CompactState initialState) {
+        return search(initialState, new CancellationToken());
+    }
+
+    default List<SolutionStep> solve(CompactState initialState) {
+        return search(initialState).getSolution();
+    }
+
+    default List<SolutionStep> solve(GameState initialState) {
+        return solve(CompactState.fromGameState(initialState));
+    }
+}
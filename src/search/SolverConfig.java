@@ -0,0 +1,224 @@
+package search;
+
+import metrics.LogMetricsSink;
+import metrics.MetricsSink;
+
+import java.nio.file.Path;
+
+public class SolverConfig {
+
+    public enum OpenListType {
+        BINARY_HEAP,
+        BUCKET
+    }
+
+    public enum Algorithm {
+        ASTAR,
+        ARA_STAR,
+        IDA_STAR
+    }
+
+    private Algorithm algorithm = Algorithm.ASTAR;
+    private OpenListType openListType = OpenListType.BUCKET;
+    private HeuristicFunction heuristic = new Heuristic();
+    private double heuristicWeight = 1.0;
+    private double initialWeight = 2.0;
+    private double weightDecrement = 0.5;
+    private SolutionListener solutionListener;
+    private int transpositionTableBits = 20;
+    private int threadCount = 1;
+    private SearchBudget budget = new SearchBudget();
+    private boolean verbose = true;
+    private long offHeapClosedSetBytes;
+    private Path closedSetFile;
+    private MetricsSink metricsSink;
+    private SolutionCache solutionCache;
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public HeuristicFunction getHeuristic() {
+        return heuristic;
+    }
+
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public double getHeuristicWeight() {
+        return heuristicWeight;
+    }
+
+    public void setHeuristicWeight(double heuristicWeight) {
+        if (heuristicWeight < 1.0) {
+            throw new IllegalArgumentException("Heuristic weight must be at least 1: " + heuristicWeight);
+        }
+        this.heuristicWeight = heuristicWeight;
+    }
+
+    public double getInitialWeight() {
+        return initialWeight;
+    }
+
+    public void setInitialWeight(double initialWeight) {
+        if (initialWeight < 1.0) {
+            throw new IllegalArgumentException("Initial weight must be at least 1: " + initialWeight);
+        }
+        this.initialWeight = initialWeight;
+    }
+
+    public double getWeightDecrement() {
+        return weightDecrement;
+    }
+
+    public void setWeightDecrement(double weightDecrement) {
+        if (weightDecrement <= 0.0) {
+            throw new IllegalArgumentException("Weight decrement must be positive: " + weightDecrement);
+        }
+        this.weightDecrement = weightDecrement;
+    }
+
+    public SolutionListener getSolutionListener() {
+        return solutionListener;
+    }
+
+    public void setSolutionListener(SolutionListener solutionListener) {
+        this.solutionListener = solutionListener;
+    }
+
+    public int getTranspositionTableBits() {
+        return transpositionTableBits;
+    }
+
+    public void setTranspositionTableBits(int transpositionTableBits) {
+        if (transpositionTableBits < 0 || transpositionTableBits > 30) {
+            throw new IllegalArgumentException("Transposition table bits must be between 0 and 30: " + transpositionTableBits);
+        }
+        this.transpositionTableBits = transpositionTableBits;
+    }
+
+    public OpenListType getOpenListType() {
+        return openListType;
+    }
+
+    public void setOpenListType(OpenListType openListType) {
+        this.openListType = openListType;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public long getOffHeapClosedSetBytes() {
+        return offHeapClosedSetBytes;
+    }
+
+    public void setOffHeapClosedSetBytes(long offHeapClosedSetBytes) {
+        this.offHeapClosedSetBytes = offHeapClosedSetBytes;
+    }
+
+    public Path getClosedSetFile() {
+        return closedSetFile;
+    }
+
+    public void setClosedSetFile(Path closedSetFile) {
+        this.closedSetFile = closedSetFile;
+    }
+
+    public MetricsSink getMetricsSink() {
+        if (metricsSink != null) {
+            return metricsSink;
+        }
+        return verbose ? new LogMetricsSink(1000) : MetricsSink.NONE;
+    }
+
+    public void setMetricsSink(MetricsSink metricsSink) {
+        this.metricsSink = metricsSink;
+    }
+
+    public SolutionCache getSolutionCache() {
+        return solutionCache;
+    }
+
+    public void setSolutionCache(SolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    public SolverConfig copy() {
+        SolverConfig copy = new SolverConfig();
+        copy.algorithm = algorithm;
+        copy.openListType = openListType;
+        copy.heuristic = heuristic;
+        copy.heuristicWeight = heuristicWeight;
+        copy.initialWeight = initialWeight;
+        copy.weightDecrement = weightDecrement;
+        copy.solutionListener = solutionListener;
+        copy.transpositionTableBits = transpositionTableBits;
+        copy.threadCount = threadCount;
+        copy.budget = budget;
+        copy.verbose = verbose;
+        copy.offHeapClosedSetBytes = offHeapClosedSetBytes;
+        copy.closedSetFile = closedSetFile;
+        copy.metricsSink = metricsSink;
+        copy.solutionCache = solutionCache;
+        return copy;
+    }
+
+    public boolean isOffHeapClosedSet() {
+        return offHeapClosedSetBytes > 0;
+    }
+
+    public StateSet createClosedSet() {
+        return isOffHeapClosedSet() ? new OffHeapStateTable(offHeapClosedSetBytes, closedSetFile) : new HeapStateSet();
+    }
+
+    public Solver createSolver() {
+        Solver solver;
+        if (algorithm == Algorithm.ARA_STAR) {
+            solver = new AnytimeAStar(this);
+        } else if (algorithm == Algorithm.IDA_STAR) {
+            solver = new IDAStar(this);
+        } else {
+            solver = threadCount > 1 ? new ParallelAStar(this) : new AStar(this);
+        }
+        return solutionCache != null ? new CachingSolver(solver, solutionCache, this) : solver;
+    }
+
+    public OpenList createOpenList() {
+        switch (openListType) {
+            case BINARY_HEAP:
+                return new BinaryHeapOpenList();
+            case BUCKET:
+            default:
+                return new BucketOpenList();
+        }
+    }
+}
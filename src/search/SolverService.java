@@ -0,0 +1,449 @@
+package search;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import models.CompactState;
+import models.Move;
+import rules.Solvability;
+import utils.BoardLoader;
+import utils.DealRange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SolverService {
+
+    public static final int MAX_REQUEST_BYTES = 64 * 1024;
+    public static final long HEARTBEAT_MILLIS = 1000;
+
+    private static class Worker {
+        private final SolverConfig config;
+        private final Solver solver;
+
+        private Worker(SolverConfig template) {
+            config = template.copy();
+            solver = config.createSolver();
+        }
+    }
+
+    private static class Request {
+        private final CompactState state;
+        private final SearchBudget budget;
+        private final CancellationToken cancellation = new CancellationToken();
+
+        private Request(CompactState state, SearchBudget budget) {
+            this.state = state;
+            this.budget = budget;
+        }
+    }
+
+    private final SolverConfig config;
+    private final int workers;
+    private final int queueCapacity;
+    private final SliceScheduler scheduler;
+    private final Semaphore admitted;
+    private final BlockingQueue<Worker> idleWorkers;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong searchMillis = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService connections;
+
+    public SolverService(SolverConfig config, int workers, int queueCapacity, long sliceExpansions) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative: " + queueCapacity);
+        }
+        if (config.getAlgorithm() == SolverConfig.Algorithm.IDA_STAR || config.getThreadCount() > 1) {
+            throw new IllegalArgumentException("The service time-slices searches; use --algorithm=astar or ara_star with --threads=1");
+        }
+        config.setVerbose(false);
+        this.config = config;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.scheduler = new SliceScheduler(workers, sliceExpansions);
+        this.admitted = new Semaphore(workers + queueCapacity);
+        this.idleWorkers = new ArrayBlockingQueue<>(workers + queueCapacity);
+        for (int i = 0; i < workers + queueCapacity; i++) {
+            idleWorkers.add(new Worker(config));
+        }
+    }
+
+    public void warmUp(int deals) throws InterruptedException {
+        ExecutorService warmers = Executors.newFixedThreadPool(workers);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                long first = (long) i * deals + 1;
+                tasks.add(() -> {
+                    Worker current = idleWorkers.take();
+                    try {
+                        current.config.setBudget(config.getBudget());
+                        for (long deal = first; deal < first + deals; deal++) {
+                            current.solver.search(DealRange.Generator.MICROSOFT.deal(deal));
+                        }
+                    } finally {
+                        idleWorkers.add(current);
+                    }
+                    return null;
+                });
+            }
+            warmers.invokeAll(tasks);
+        } finally {
+            warmers.shutdown();
+        }
+    }
+
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        connections = Executors.newFixedThreadPool(workers + queueCapacity + 2);
+        server.setExecutor(connections);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void stop() {
+        server.stop(0);
+        connections.shutdown();
+        scheduler.shutdown();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"use POST\"}");
+                return;
+            }
+            requests.incrementAndGet();
+
+            Request request;
+            try {
+                request = parseRequest(readBody(exchange.getRequestBody()), parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (RuntimeException e) {
+                respond(exchange, 400, "{\"error\":\"" + escapeJson(String.valueOf(e.getMessage())) + "\"}");
+                return;
+            }
+
+            if (!admitted.tryAcquire()) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "{\"error\":\"solver queue is full\"}");
+                return;
+            }
+
+            long admittedAt = System.nanoTime();
+            AtomicLong queueNanos = new AtomicLong(-1);
+            Worker current = idleWorkers.remove();
+            CompletableFuture<SearchResult> response;
+            try {
+                current.config.setBudget(request.budget);
+                ResumableSearch search = current.solver.start(request.state, request.cancellation);
+                response = scheduler.submit(new ResumableSearch() {
+                    @Override
+                    public SearchResult resume(long expansions) {
+                        queueNanos.compareAndSet(-1, System.nanoTime() - admittedAt);
+                        return search.resume(expansions);
+                    }
+
+                    @Override
+                    public void abandon() {
+                        search.abandon();
+                    }
+                });
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((result, failure) -> {
+                idleWorkers.add(current);
+                admitted.release();
+                completed.incrementAndGet();
+            });
+
+            OutputStream heartbeat = null;
+            try {
+                SearchResult result = null;
+                while (result == null) {
+                    try {
+                        result = response.get(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        if (heartbeat == null) {
+                            exchange.getResponseHeaders().set("Content-Type", "application/json");
+                            exchange.sendResponseHeaders(200, 0);
+                            heartbeat = exchange.getResponseBody();
+                        }
+                        heartbeat.write(' ');
+                        heartbeat.flush();
+                    }
+                }
+                finish(exchange, heartbeat, 200, format(request, result, queueNanos.get() / 1_000_000));
+            } catch (ExecutionException e) {
+                finish(exchange, heartbeat, 500, "{\"error\":\"" + escapeJson(String.valueOf(e.getCause().getMessage())) + "\"}");
+            } catch (InterruptedException e) {
+                request.cancellation.cancel();
+                Thread.currentThread().interrupt();
+                finish(exchange, heartbeat, 503, "{\"error\":\"solver service is shutting down\"}");
+            } catch (IOException e) {
+                request.cancellation.cancel();
+                throw e;
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String format(Request request, SearchResult result, long queueMillis) {
+        searchMillis.addAndGet(result.getElapsedMillis());
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"status\":\"").append(result.getStopReason().name().toLowerCase()).append('"');
+        if (result.getLimitReason() != null) {
+            json.append(",\"limit\":\"").append(result.getLimitReason().name().toLowerCase()).append('"');
+        }
+        json.append(",\"nodes\":").append(result.getNodesVisited())
+            .append(",\"ms\":").append(result.getElapsedMillis())
+            .append(",\"queueMs\":").append(Math.max(queueMillis, 0));
+        if (result.isSolved()) {
+            solved.incrementAndGet();
+            int[] moves = MoveGenerator.findMoves(request.state, result.getSolution());
+            json.append(",\"moves\":").append(result.getSolution().size()).append(",\"solution\":[");
+            for (int i = 0; moves != null && i < moves.length; i++) {
+                json.append(i > 0 ? "," : "").append('"').append(Move.toNotation(moves[i])).append('"');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"workers\":").append(workers)
+                .append(",\"inFlight\":").append(scheduler.getInFlight())
+                .append(",\"waitingSlices\":").append(scheduler.getWaitingSlices())
+                .append(",\"slices\":").append(scheduler.getSlices())
+                .append(",\"requests\":").append(requests.get())
+                .append(",\"rejected\":").append(rejected.get())
+                .append(",\"completed\":").append(completed.get())
+                .append(",\"solved\":").append(solved.get())
+                .append(",\"searchMs\":").append(searchMillis.get());
+            SolutionCache cache = config.getSolutionCache();
+            if (cache != null) {
+                json.append(",\"cacheHits\":").append(cache.getHits()).append(",\"cacheMisses\":").append(cache.getMisses());
+            }
+            respond(exchange, 200, json.append('}').toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Request parseRequest(String body, Map<String, String> query) {
+        Map<String, String> fields = new HashMap<>(query);
+        String board = body;
+        if (body.trim().startsWith("{")) {
+            fields.putAll(parseJsonObject(body.trim()));
+            board = fields.get("board");
+        }
+
+        CompactState state;
+        if (fields.containsKey("deal")) {
+            DealRange deal = DealRange.parse(fields.get("deal"));
+            if (deal.size() != 1) {
+                throw new IllegalArgumentException("Request takes a single deal, not a range: " + fields.get("deal"));
+            }
+            state = deal.getGenerator().deal(deal.getFirst());
+        } else if (board != null && !board.isBlank()) {
+            state = CompactState.fromGameState(BoardLoader.loadFromString(board));
+            String problem = Solvability.findCardProblem(state);
+            if (problem != null) {
+                throw new IllegalArgumentException("Invalid board: " + problem);
+            }
+        } else {
+            throw new IllegalArgumentException("Request needs a board or a deal");
+        }
+
+        SearchBudget limits = config.getBudget();
+        SearchBudget budget = new SearchBudget();
+        budget.setMaxNodes(Math.min(limits.getMaxNodes(), parseLimit(fields, "maxNodes", limits.getMaxNodes())));
+        budget.setMaxTimeMillis(Math.min(limits.getMaxTimeMillis(), parseLimit(fields, "maxMs", limits.getMaxTimeMillis())));
+        budget.setMaxDepth((int) Math.min(limits.getMaxDepth(), parseLimit(fields, "maxDepth", limits.getMaxDepth())));
+        if (limits.getMaxMemoryBytes() != SearchBudget.UNLIMITED) {
+            budget.setMaxMemoryBytes(limits.getMaxMemoryBytes());
+        }
+        return new Request(state, budget);
+    }
+
+    private static long parseLimit(Map<String, String> fields, String name, long defaultValue) {
+        String value = fields.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+            if (body.size() > MAX_REQUEST_BYTES) {
+                throw new IllegalArgumentException("Request body exceeds " + MAX_REQUEST_BYTES + " bytes");
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> fields = new HashMap<>();
+        if (query == null) {
+            return fields;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                fields.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> parseJsonObject(String json) {
+        Map<String, String> fields = new HashMap<>();
+        int[] position = {skipWhitespace(json, 1)};
+        while (position[0] < json.length() && json.charAt(position[0]) != '}') {
+            String key = parseJsonString(json, position);
+            position[0] = skipWhitespace(json, position[0]);
+            if (position[0] >= json.length() || json.charAt(position[0]) != ':') {
+                throw new IllegalArgumentException("Expected ':' after \"" + key + "\"");
+            }
+            position[0] = skipWhitespace(json, position[0] + 1);
+            String value;
+            if (position[0] < json.length() && json.charAt(position[0]) == '"') {
+                value = parseJsonString(json, position);
+            } else {
+                int start = position[0];
+                while (position[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = json.substring(start, position[0]);
+            }
+            if (!"null".equals(value)) {
+                fields.put(key, value);
+            }
+            position[0] = skipWhitespace(json, position[0]);
+            if (position[0] < json.length() && json.charAt(position[0]) == ',') {
+                position[0] = skipWhitespace(json, position[0] + 1);
+            }
+        }
+        if (position[0] >= json.length()) {
+            throw new IllegalArgumentException("Unterminated JSON object");
+        }
+        return fields;
+    }
+
+    private static String parseJsonString(String json, int[] position) {
+        if (position[0] >= json.length() || json.charAt(position[0]) != '"') {
+            throw new IllegalArgumentException("Expected a JSON string at offset " + position[0]);
+        }
+        StringBuilder value = new StringBuilder();
+        int i = position[0] + 1;
+        while (i < json.length() && json.charAt(i) != '"') {
+            char c = json.charAt(i++);
+            if (c == '\\' && i < json.length()) {
+                char escaped = json.charAt(i++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (i + 4 > json.length()) {
+                            throw new IllegalArgumentException("Truncated unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(json.substring(i, i + 4), 16));
+                        i += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                        break;
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        if (i >= json.length()) {
+            throw new IllegalArgumentException("Unterminated JSON string");
+        }
+        position[0] = i + 1;
+        return value.toString();
+    }
+
+    private static int skipWhitespace(String json, int position) {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void finish(HttpExchange exchange, OutputStream heartbeat, int status, String body) throws IOException {
+        if (heartbeat == null) {
+            respond(exchange, status, body);
+            return;
+        }
+        try (OutputStream out = heartbeat) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,16 @@
+package search;
+
+import models.CompactState;
+
+public interface StateSet extends AutoCloseable {
+
+    boolean add(CompactState state);
+
+    boolean contains(CompactState state);
+
+    long size();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,69 @@
+package search;
+
+import models.CompactState;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class WeightedHeuristic implements HeuristicFunction {
+
+    private final double homeCardWeight;
+    private final double sequenceCardWeight;
+    private final double emptyTableauWeight;
+    private final double usedFreeCellWeight;
+    private final double blockedCardWeight;
+
+    public WeightedHeuristic(double homeCardWeight, double sequenceCardWeight, double emptyTableauWeight,
+                             double usedFreeCellWeight, double blockedCardWeight) {
+        this.homeCardWeight = homeCardWeight;
+        this.sequenceCardWeight = sequenceCardWeight;
+        this.emptyTableauWeight = emptyTableauWeight;
+        this.usedFreeCellWeight = usedFreeCellWeight;
+        this.blockedCardWeight = blockedCardWeight;
+    }
+
+    public static WeightedHeuristic load(Path file) throws IOException {
+        Properties weights = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            weights.load(reader);
+        }
+        return new WeightedHeuristic(
+            weight(weights, "home.card", Heuristic.REWARD_PER_CARD_IN_HOME),
+            weight(weights, "sequence.card", Heuristic.REWARD_PER_SEQUENCE_CARD),
+            weight(weights, "empty.tableau", Heuristic.REWARD_PER_EMPTY_TABLEAU),
+            weight(weights, "used.freecell", Heuristic.PENALTY_PER_USED_FREECELL),
+            weight(weights, "blocked.card", Heuristic.PENALTY_PER_BLOCKED_CARD));
+    }
+
+    private static double weight(Properties weights, String key, double defaultValue) {
+        String value = weights.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weight for " + key + ": " + value);
+        }
+    }
+
+    @Override
+    public int calculate(CompactState state) {
+        int pileTotals = Heuristic.evaluatePiles(state);
+        double score = state.getCardsInHomeCount() * homeCardWeight
+            + (pileTotals >>> 16) * sequenceCardWeight
+            + state.getEmptyTableauPilesCount() * emptyTableauWeight
+            + (CompactState.FREE_CELLS - state.getEmptyFreeCellsCount()) * usedFreeCellWeight
+            + (pileTotals & 0xFFFF) * blockedCardWeight;
+        return (int) Math.round(score);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("home.card=%s sequence.card=%s empty.tableau=%s used.freecell=%s blocked.card=%s",
+            homeCardWeight, sequenceCardWeight, emptyTableauWeight, usedFreeCellWeight, blockedCardWeight);
+    }
+}
@@ -0,0 +1,195 @@
+package utils;
+
+import models.CompactState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BinaryBoardFormat {
+
+    public static final int MAGIC = 0x46434442;
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 8;
+    public static final int RECORD_BYTES = CompactState.DECK_SIZE;
+
+    private static final int MAX_PILE_POSITION = 29;
+    private static final int FREE_CELL = 30;
+    private static final int HOME = 31;
+    private static final int MAX_SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_BYTES;
+
+    public static void encode(CompactState state, ByteBuffer buffer) {
+        int start = buffer.position();
+        long placed = 0;
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            for (int rank = 1; rank <= state.homeRank(suit); rank++) {
+                buffer.put(start + CompactState.cardIndex(suit, rank), (byte) HOME);
+                placed |= 1L << CompactState.cardIndex(suit, rank);
+            }
+        }
+        for (int cell = 0; cell < CompactState.FREE_CELLS; cell++) {
+            int card = state.getFreeCell(cell);
+            if (card != CompactState.NO_CARD) {
+                buffer.put(start + card, (byte) (cell << 5 | FREE_CELL));
+                placed |= 1L << card;
+            }
+        }
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            if (state.pileSize(pile) > MAX_PILE_POSITION + 1) {
+                throw new IllegalArgumentException("Pile " + (pile + 1) + " is too tall to encode: " + state.pileSize(pile));
+            }
+            for (int position = 0; position < state.pileSize(pile); position++) {
+                buffer.put(start + state.cardAt(pile, position), (byte) (pile << 5 | position));
+                placed |= 1L << state.cardAt(pile, position);
+            }
+        }
+        if (Long.bitCount(placed) != CompactState.DECK_SIZE) {
+            throw new IllegalArgumentException("Board does not hold all " + CompactState.DECK_SIZE + " cards exactly once");
+        }
+        buffer.position(start + RECORD_BYTES);
+    }
+
+    public static CompactState decode(ByteBuffer buffer, int offset) {
+        int[] slots = new int[CompactState.TABLEAU_PILES * (MAX_PILE_POSITION + 1)];
+        int[] homeRanks = new int[CompactState.SUITS];
+        CompactState state = new CompactState();
+
+        for (int card = 0; card < CompactState.DECK_SIZE; card++) {
+            int code = buffer.get(offset + card) & 0xFF;
+            int location = code >>> 5;
+            int position = code & 0x1F;
+            if (position == HOME) {
+                homeRanks[CompactState.suitOf(card)]++;
+            } else if (position == FREE_CELL) {
+                if (location >= CompactState.FREE_CELLS || state.getFreeCell(location) != CompactState.NO_CARD) {
+                    throw new IllegalArgumentException("Corrupt board record: bad free cell for card " + card);
+                }
+                state.setFreeCell(location, card);
+            } else {
+                int slot = location * (MAX_PILE_POSITION + 1) + position;
+                if (slots[slot] != 0) {
+                    throw new IllegalArgumentException("Corrupt board record: two cards at pile " + (location + 1) + " position " + position);
+                }
+                slots[slot] = card + 1;
+            }
+        }
+
+        for (int pile = 0; pile < CompactState.TABLEAU_PILES; pile++) {
+            int base = pile * (MAX_PILE_POSITION + 1);
+            int size = 0;
+            while (size <= MAX_PILE_POSITION && slots[base + size] != 0) {
+                state.pushTableau(pile, slots[base + size] - 1);
+                size++;
+            }
+            for (int position = size; position <= MAX_PILE_POSITION; position++) {
+                if (slots[base + position] != 0) {
+                    throw new IllegalArgumentException("Corrupt board record: gap in pile " + (pile + 1));
+                }
+            }
+        }
+        for (int suit = 0; suit < CompactState.SUITS; suit++) {
+            for (int rank = 1; rank <= homeRanks[suit]; rank++) {
+                int card = CompactState.cardIndex(suit, rank);
+                if ((buffer.get(offset + card) & 0x1F) != HOME) {
+                    throw new IllegalArgumentException("Corrupt board record: home cells are not in sequence");
+                }
+                state.addToHome(card);
+            }
+        }
+        return state;
+    }
+
+    public static long write(Iterable<CompactState> deals, Path file) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 4096);
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_BYTES);
+            for (CompactState deal : deals) {
+                if (buffer.remaining() < RECORD_BYTES) {
+                    flush(channel, buffer);
+                }
+                encode(deal, buffer);
+                count++;
+            }
+            flush(channel, buffer);
+        }
+        return count;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static DealFile open(Path file) throws IOException {
+        return new DealFile(file);
+    }
+
+    public static class DealFile implements Iterable<CompactState> {
+
+        private final ByteBuffer[] segments;
+        private final long count;
+
+        private DealFile(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                    throw new IOException("Not a binary board file: " + file);
+                }
+                short version = header.getShort();
+                short recordBytes = header.getShort();
+                if (version != VERSION || recordBytes != RECORD_BYTES) {
+                    throw new IOException("Unsupported binary board file version " + version + " in " + file);
+                }
+
+                count = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+                segments = new ByteBuffer[(int) ((count + MAX_SEGMENT_RECORDS - 1) / MAX_SEGMENT_RECORDS)];
+                for (int i = 0; i < segments.length; i++) {
+                    long firstRecord = (long) i * MAX_SEGMENT_RECORDS;
+                    long records = Math.min(MAX_SEGMENT_RECORDS, count - firstRecord);
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + firstRecord * RECORD_BYTES, records * RECORD_BYTES);
+                }
+            }
+        }
+
+        public long size() {
+            return count;
+        }
+
+        public CompactState get(long index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Deal " + index + " of " + count);
+            }
+            return decode(segments[(int) (index / MAX_SEGMENT_RECORDS)], (int) (index % MAX_SEGMENT_RECORDS) * RECORD_BYTES);
+        }
+
+        @Override
+        public Iterator<CompactState> iterator() {
+            return new Iterator<>() {
+                private long next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public CompactState next() {
+                    if (next >= count) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(next++);
+                }
+            };
+        }
+    }
+}
@@ -6,66 +6,79 @@ import models.GameState;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.Stack;
 
 public class BoardLoader {
 
     public static GameState loadFromFile(String filename) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            return load(reader);
+        }
+    }
+
+    public static GameState loadFromString(String board) {
+        try (BufferedReader reader = new BufferedReader(new StringReader(board))) {
+            return load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static GameState load(BufferedReader reader) throws IOException {
         GameState state = new GameState();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {            
-            String line;
-            for (int i = 0; i < 8; i++) {
-                do {
-                    line = reader.readLine();
-                } while (line != null && (line.trim().startsWith("#") || line.trim().isEmpty()));
-                
-                if (line != null && !line.trim().equals("empty")) {
-                    String[] cardStrings = line.trim().split(",");
-                    Stack<Card> pile = state.getTableauPiles().get(i);
-                    for (String cardStr : cardStrings) {
-                        cardStr = cardStr.trim();
-                        if (!cardStr.isEmpty() && !cardStr.equals("empty")) {
-                            Card card = parseCard(cardStr);
-                            if (card != null) {
-                                pile.push(card);
-                            }
-                        }
-                    }
-                }
-            }
-            
+        String line;
+        for (int i = 0; i < 8; i++) {
             do {
                 line = reader.readLine();
             } while (line != null && (line.trim().startsWith("#") || line.trim().isEmpty()));
             
-            if (line != null) {
-                String[] freeCellStrings = line.trim().split(",");
-                for (int i = 0; i < Math.min(4, freeCellStrings.length); i++) {
-                    String cardStr = freeCellStrings[i].trim();
+            if (line != null && !line.trim().equals("empty")) {
+                String[] cardStrings = line.trim().split(",");
+                Stack<Card> pile = state.getTableauPiles().get(i);
+                for (String cardStr : cardStrings) {
+                    cardStr = cardStr.trim();
                     if (!cardStr.isEmpty() && !cardStr.equals("empty")) {
                         Card card = parseCard(cardStr);
-                        state.getFreeCells().set(i, card);
+                        if (card != null) {
+                            pile.push(card);
+                        }
                     }
                 }
             }
+        }
+        
+        do {
+            line = reader.readLine();
+        } while (line != null && (line.trim().startsWith("#") || line.trim().isEmpty()));
+        
+        if (line != null) {
+            String[] freeCellStrings = line.trim().split(",");
+            for (int i = 0; i < Math.min(4, freeCellStrings.length); i++) {
+                String cardStr = freeCellStrings[i].trim();
+                if (!cardStr.isEmpty() && !cardStr.equals("empty")) {
+                    Card card = parseCard(cardStr);
+                    state.getFreeCells().set(i, card);
+                }
+            }
+        }
+        
+        for (int i = 0; i < 4; i++) {
+            do {
+                line = reader.readLine();
+            } 
+            while (line != null && (line.trim().startsWith("#") || line.trim().isEmpty()));
             
-            for (int i = 0; i < 4; i++) {
-                do {
-                    line = reader.readLine();
-                } 
-                while (line != null && (line.trim().startsWith("#") || line.trim().isEmpty()));
-                
-                if (line != null && !line.trim().equals("empty")) {
-                    String[] cardStrings = line.trim().split(",");
-                    Stack<Card> homePile = state.getHomeCells().get(i);
-                    for (String cardStr : cardStrings) {
-                        cardStr = cardStr.trim();
-                        if (!cardStr.isEmpty() && !cardStr.equals("empty")) {
-                            Card card = parseCard(cardStr);
-                            if (card != null) {
-                                homePile.push(card);
-                            }
+            if (line != null && !line.trim().equals("empty")) {
+                String[] cardStrings = line.trim().split(",");
+                Stack<Card> homePile = state.getHomeCells().get(i);
+                for (String cardStr : cardStrings) {
+                    cardStr = cardStr.trim();
+                    if (!cardStr.isEmpty() && !cardStr.equals("empty")) {
+                        Card card = parseCard(cardStr);
+                        if (card != null) {
+                            homePile.push(card);
                         }
                     }
                 }
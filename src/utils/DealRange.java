@@ -0,0 +1,123 @@
+package utils;
+
+import models.CompactState;
+import models.GameState;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongFunction;
+
+public class DealRange implements Iterable<CompactState> {
+
+    public enum Generator {
+        MICROSOFT("#"),
+        SEEDED("seed:");
+
+        private final String prefix;
+
+        Generator(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public CompactState deal(long number) {
+            return this == MICROSOFT ? MicrosoftDeals.deal(number) : SeededDeals.deal(number);
+        }
+
+        public String name(long number) {
+            return prefix + number;
+        }
+    }
+
+    private final Generator generator;
+    private final long first;
+    private final long last;
+
+    public DealRange(Generator generator, long first, long last) {
+        if (last < first) {
+            throw new IllegalArgumentException("Empty deal range: " + first + "-" + last);
+        }
+        if (generator == Generator.MICROSOFT && (first < MicrosoftDeals.MIN_DEAL || last > MicrosoftDeals.MAX_DEAL)) {
+            throw new IllegalArgumentException("Microsoft deals must be between " + MicrosoftDeals.MIN_DEAL + " and " + MicrosoftDeals.MAX_DEAL);
+        }
+        this.generator = generator;
+        this.first = first;
+        this.last = last;
+    }
+
+    public static DealRange microsoft(long first, long last) {
+        return new DealRange(Generator.MICROSOFT, first, last);
+    }
+
+    public static DealRange seeded(long first, long last) {
+        return new DealRange(Generator.SEEDED, first, last);
+    }
+
+    public static DealRange parse(String range) {
+        Generator generator = Generator.MICROSOFT;
+        if (range.startsWith(Generator.SEEDED.prefix)) {
+            generator = Generator.SEEDED;
+            range = range.substring(Generator.SEEDED.prefix.length());
+        } else if (range.startsWith(Generator.MICROSOFT.prefix)) {
+            range = range.substring(Generator.MICROSOFT.prefix.length());
+        }
+        int separator = range.indexOf('-', 1);
+        try {
+            long first = Long.parseLong(separator < 0 ? range : range.substring(0, separator));
+            long last = separator < 0 ? first : Long.parseLong(range.substring(separator + 1));
+            return new DealRange(generator, first, last);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid deal range: " + range);
+        }
+    }
+
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    public long size() {
+        return last - first + 1;
+    }
+
+    public <T> Iterator<T> iterator(LongFunction<T> factory) {
+        return new Iterator<>() {
+            private long next = first;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                return !exhausted;
+            }
+
+            @Override
+            public T next() {
+                if (exhausted) {
+                    throw new NoSuchElementException();
+                }
+                long number = next;
+                if (number == last) {
+                    exhausted = true;
+                } else {
+                    next++;
+                }
+                return factory.apply(number);
+            }
+        };
+    }
+
+    @Override
+    public Iterator<CompactState> iterator() {
+        return iterator(generator::deal);
+    }
+
+    public Iterable<GameState> gameStates() {
+        return () -> iterator(number -> generator.deal(number).toGameState());
+    }
+}
@@ -0,0 +1,34 @@
+package utils;
+
+import models.CompactState;
+
+public class MicrosoftDeals {
+
+    public static final long MIN_DEAL = 1;
+    public static final long MAX_CLASSIC_DEAL = 0x7FFFFFFFL;
+    public static final long MAX_DEAL = 0xFFFFFFFFL;
+
+    public static CompactState deal(long dealNumber) {
+        if (dealNumber < MIN_DEAL || dealNumber > MAX_DEAL) {
+            throw new IllegalArgumentException("Deal number must be between " + MIN_DEAL + " and " + MAX_DEAL + ": " + dealNumber);
+        }
+
+        int[] deck = new int[CompactState.DECK_SIZE];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+
+        CompactState state = new CompactState();
+        boolean extended = dealNumber > MAX_CLASSIC_DEAL;
+        long seed = dealNumber;
+        for (int i = 0, remaining = deck.length; i < CompactState.DECK_SIZE; i++, remaining--) {
+            seed = (seed * 214013L + 2531011L) & 0xFFFFFFFFL;
+            int random = (int) (seed >> 16 & 0x7FFF) | (extended ? 0x8000 : 0);
+            int index = random % remaining;
+            int card = deck[index];
+            deck[index] = deck[remaining - 1];
+            state.pushTableau(i % CompactState.TABLEAU_PILES, CompactState.cardIndex(card % 4, card / 4 + 1));
+        }
+        return state;
+    }
+}
@@ -0,0 +1,29 @@
+package utils;
+
+import models.CompactState;
+
+import java.util.SplittableRandom;
+
+public class SeededDeals {
+
+    public static CompactState deal(long seed) {
+        int[] deck = new int[CompactState.DECK_SIZE];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int card = deck[i];
+            deck[i] = deck[j];
+            deck[j] = card;
+        }
+
+        CompactState state = new CompactState();
+        for (int i = 0; i < deck.length; i++) {
+            state.pushTableau(i % CompactState.TABLEAU_PILES, deck[i]);
+        }
+        return state;
+    }
+}